@@ -4,21 +4,37 @@
  * Description: Adventurer class that extends the Unit class for runnable.
  * Is the superclass for all the different adventurer subclasses, defines general methods and variables.
  * Implementation of Template Design Pattern with the method uniqueSkill.
+ * The position, specs and alive flag live in an AdventurerStore, the adventurer is a view over its unit id there:
+ * a store of its own until it is placed, then its grid's store at its grid slot.
  */
 
 import Skeleton.SimulationInput;
+import Skeleton.StatisticsContainer;
+import Skeleton.SummaryStatistic;
 import Skeleton.Unit;
-import Skeleton.WorkerStatistic;
+import Skeleton.CounterStatistic;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
 
 class Adventurer extends Unit {
+    static final int OFF_GRID = -1; //The coordinates of a dead adventurer, outside every grid.
     private int timesMoved = 0; //Count for the amount of times moved for the adventurer.
-    private int x; //Starting x-coordinate for the adventurer
-    private int y; //Starting y-coordinate for the adventurer.
-    private int attackVal; //Attack value of the unit;
-    private int healthVal; //Health value of the unit;
-    private int luckVal; //Luck value for damage bonus of the unit;
-    private boolean currentlyAlive; //Boolean that shows whether the adventurer is alive.
-    private MoodState currentMoodState; //Moodstate object to show the mood of the adventurer.
+    private long damageDealt = 0; //Total damage dealt by the adventurer's attacks.
+    //The store holding the position, specs and alive flag, the grid's store once placed.
+    private AdventurerStore store = new AdventurerStore(0);
+    private int unitId; //The unit id of the adventurer in its store, the grid slot once placed.
+    //Semaphore held by the adventurer's own moves and by any battle it is fighting in.
+    private final Semaphore combatSemaphore = new Semaphore(1);
+    private volatile MoodState currentMoodState = MoodState.NEUTRAL; //Moodstate object to show the mood of the adventurer.
+    private BattleGrid grid; //The grid the adventurer has been placed on, notified whenever the coordinates change.
+    private SplittableRandom random; //The adventurer's own random stream, split from the grid's seed when placed.
+    private CounterStatistic movesPerformed; //The MovesPerformed counter, kept so a move skips the statistic lookup.
+    private CounterStatistic attacksPerformed; //The AttacksPerformed counter, kept so an attack skips the lookup.
+    private CounterStatistic[] moodChanges; //The counters of transitions into each mood, by mood ordinal.
+    private SummaryStatistic damagePerHit; //The DamagePerHit summary, the damage of every attack.
+    private SummaryStatistic battleRounds; //The BattleRounds summary, the rounds every battle fought lasted.
+    private SummaryStatistic healthRemaining; //The HealthRemaining summary, the battle-local hp left after every win.
 
     /**
      * General constructor for the Adventurer object with name, atk, hp, lck and input.
@@ -31,20 +47,56 @@ class Adventurer extends Unit {
      * @param input The simulation input object for the adventurer object.
      */
     public Adventurer(String name, int atk, int hp, int lck, SimulationInput input) {
-        super(name, input);
-        this.attackVal = atk;
-        this.healthVal = hp;
-        this.luckVal = lck;
-        this.currentlyAlive = true;
-        //Statistics calls to track the moves and attacks performed.
-        this.getStats().addStatistic(
+        this(name, atk, hp, lck, input, StatisticsContainer.getInstance());
+    }
+
+    /**
+     * Constructor for the Adventurer object whose statistics go to the given container instead of the shared one,
+     * so runs side by side each keep their own statistics.
+     *
+     * @param name  The String name for the adventurer.
+     * @param atk   The int attack value for the adventurer.
+     * @param hp    The int hp value for the adventurer.
+     * @param lck   The int luck value for the adventurer.
+     * @param input The simulation input object for the adventurer object.
+     * @param stats The statistics container of the run the adventurer belongs to.
+     */
+    public Adventurer(String name, int atk, int hp, int lck, SimulationInput input, StatisticsContainer stats) {
+        //The statistics are only registered once the grid places the adventurer, see BattleGrid.addAdventurer.
+        super(name, input, stats, false);
+        this.store.setAttack(this.unitId, atk);
+        this.store.setHealth(this.unitId, hp);
+        this.store.setLuck(this.unitId, lck);
+        this.store.setClassId(this.unitId, this.getClassId());
+        this.store.setAlive(this.unitId, true);
+        //Statistics calls to track the moves and attacks performed, counters since they only ever add 1.
+        this.movesPerformed = (CounterStatistic) this.getStats().addStatistic(
                 "MovesPerformed",
-                new WorkerStatistic("MovesPerformed")
+                new CounterStatistic("MovesPerformed")
         );
-        this.getStats().addStatistic(
+        this.attacksPerformed = (CounterStatistic) this.getStats().addStatistic(
                 "AttacksPerformed",
-                new WorkerStatistic("AttacksPerformed")
+                new CounterStatistic("AttacksPerformed")
+        );
+        //Summaries of the distributions of hits, battle lengths and health left after a win.
+        this.damagePerHit = (SummaryStatistic) this.getStats().addStatistic(
+                "DamagePerHit",
+                new SummaryStatistic("DamagePerHit")
+        );
+        this.battleRounds = (SummaryStatistic) this.getStats().addStatistic(
+                "BattleRounds",
+                new SummaryStatistic("BattleRounds")
+        );
+        this.healthRemaining = (SummaryStatistic) this.getStats().addStatistic(
+                "HealthRemaining",
+                new SummaryStatistic("HealthRemaining")
         );
+        //One counter per mood, counting the transitions into it.
+        this.moodChanges = new CounterStatistic[MoodState.values().length];
+        for (MoodState mood : MoodState.values()) {
+            this.moodChanges[mood.ordinal()] = (CounterStatistic) this.getStats().addStatistic(
+                    mood.statistic, new CounterStatistic(mood.statistic));
+        }
     }
 
     /**
@@ -54,7 +106,8 @@ class Adventurer extends Unit {
      * @param input The simulation input object for the adventurer object.
      */
     public Adventurer(SimulationInput input) {
-        super("DefaultAdventurerName", input);
+        super("DefaultAdventurerName", input, StatisticsContainer.getInstance(), false);
+        this.store.setClassId(this.unitId, this.getClassId());
     }
 
     /**
@@ -65,12 +118,20 @@ class Adventurer extends Unit {
      * @throws InterruptedException
      */
     public void performAction() throws InterruptedException {
-        if (currentlyAlive)
-            BattleGrid.getInstance().simulateMovement(this);
-        else {
-            this.setX(99);
-            this.setY(99);
-        }
+        if (isAlive())
+            grid.simulateMovement(this);
+        else
+            leaveGrid();
+    }
+
+    /**
+     * Method that moves a dead adventurer off the grid to avoid conflict with alive units.
+     * Both coordinates change in one update to OFF_GRID, which no grid size contains, so the grid unlinks the
+     * adventurer from its cell instead of moving it to another tile.
+     */
+    public void leaveGrid() {
+        long old = this.store.getAndUpdatePosition(this.unitId, current -> pack(OFF_GRID, OFF_GRID));
+        positionChanged(unpackX(old), unpackY(old));
     }
 
     /**
@@ -80,6 +141,13 @@ class Adventurer extends Unit {
         return 0;
     }
 
+    /**
+     * General method for the class id, follows Template Pattern. Adventurers with the same class id are allies.
+     */
+    public byte getClassId() {
+        return 0;
+    }
+
     ;
 
     /**
@@ -95,14 +163,44 @@ class Adventurer extends Unit {
      * Method that returns if the adventurer is alive.
      */
     public boolean isAlive() {
-        return this.currentlyAlive;
+        return this.store.isAlive(this.unitId);
     }
 
     /**
-     * Method that makes the adventurer dead by making currentlyAlive to false.
+     * Method that makes the adventurer dead by clearing its alive flag.
      */
     public void makeDead() {
-        this.currentlyAlive = false;
+        this.store.setAlive(this.unitId, false);
+    }
+
+    /**
+     * Getter for the id of the weapon the adventurer has equipped, WeaponRegistry.FISTS until it equips one.
+     */
+    public int getWeaponId() {
+        return this.store.getWeapon(this.unitId);
+    }
+
+    /**
+     * Getter for the weapon the adventurer has equipped.
+     */
+    public Weapon getWeapon() {
+        return WeaponRegistry.get(getWeaponId());
+    }
+
+    /**
+     * Setter for the weapon the adventurer has equipped.
+     *
+     * @param weapon The shared weapon instance.
+     */
+    public void setWeapon(Weapon weapon) {
+        this.store.setWeapon(this.unitId, (byte) weapon.id);
+    }
+
+    /**
+     * Getter for the combat semaphore of the adventurer, held while it moves or fights.
+     */
+    Semaphore getCombatSemaphore() {
+        return this.combatSemaphore;
     }
 
     /**
@@ -112,56 +210,111 @@ class Adventurer extends Unit {
      * @throws InterruptedException
      */
     public void setCurrentMoodState(MoodState moodState) throws InterruptedException {
-        this.currentMoodState = moodState;
+        changeMood(moodState);
         this.currentMoodState.moodAction(this);
     }
 
     /**
-     * The method for the happy mood action, outputs text.
+     * Method that moves the adventurer to a mood without its mood action, counting the transition if the mood changed.
+     * Only called by a battle holding the adventurer's combat semaphore.
+     *
+     * @param moodState The mood the adventurer moves to.
+     */
+    void changeMood(MoodState moodState) {
+        if (moodState != this.currentMoodState) {
+            this.currentMoodState = moodState;
+            this.moodChanges[moodState.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Getter for the MovesPerformed counter of the adventurer.
+     */
+    CounterStatistic getMovesPerformed() {
+        return this.movesPerformed;
+    }
+
+    /**
+     * Getter for the AttacksPerformed counter of the adventurer.
+     */
+    CounterStatistic getAttacksPerformed() {
+        return this.attacksPerformed;
+    }
+
+    /**
+     * Getter for the DamagePerHit summary of the adventurer.
+     */
+    SummaryStatistic getDamagePerHit() {
+        return this.damagePerHit;
+    }
+
+    /**
+     * Getter for the BattleRounds summary of the adventurer.
+     */
+    SummaryStatistic getBattleRounds() {
+        return this.battleRounds;
+    }
+
+    /**
+     * Getter for the HealthRemaining summary of the adventurer.
+     */
+    SummaryStatistic getHealthRemaining() {
+        return this.healthRemaining;
+    }
+
+    /**
+     * Getter for the current mood of the adventurer, neutral until its first battle.
+     */
+    public MoodState getCurrentMoodState() {
+        return this.currentMoodState;
+    }
+
+    /**
+     * The method for the happy mood action, logs text.
      *
      * @throws InterruptedException
      */
     public void performHappyAction() throws InterruptedException {
-        System.out.println("    >The winning unit is happy");
+        getLog().log(BattleLog.Event.NOTE, this, "The winning unit is happy");
     }
 
     /**
-     * The method for the angry mood action, outputs text.
+     * The method for the angry mood action, logs text.
      *
      * @throws InterruptedException
      */
     public void performAngryAction() throws InterruptedException {
-        System.out.println("    >The winning unit is angry");
+        getLog().log(BattleLog.Event.NOTE, this, "The winning unit is angry");
     }
 
     /**
-     * The method for the neutral mood action, outputs text.
+     * The method for the neutral mood action, logs text.
      *
      * @throws InterruptedException
      */
     public void performNeutralAction() throws InterruptedException {
-        System.out.println("    >This unit is dead (no emotion).");
+        getLog().log(BattleLog.Event.NOTE, this, "This unit is dead (no emotion).");
     }
 
     /**
      * Getter for the attack value of the adventurer.
      */
     public int getAttack() {
-        return this.attackVal;
+        return this.store.getAttack(this.unitId);
     }
 
     /**
      * Getter for the health value of the adventurer.
      */
     public int getHealth() {
-        return this.healthVal;
+        return this.store.getHealth(this.unitId);
     }
 
     /**
      * Getter for the luck value of the adventurer.
      */
     public int getLuck() {
-        return this.luckVal;
+        return this.store.getLuck(this.unitId);
     }
 
     /**
@@ -169,24 +322,50 @@ class Adventurer extends Unit {
      */
     public int[] getSpecs() {
         int[] specs = new int[3];
+        copySpecs(specs);
+        return specs;
+    }
+
+    /**
+     * Method that copies the specs (atk, hp, lck) into an existing array, so a battle can reuse its arrays.
+     *
+     * @param specs The array the specs are copied into, at least 3 long.
+     */
+    public void copySpecs(int[] specs) {
         specs[0] = this.getAttack();
         specs[1] = this.getHealth();
         specs[2] = this.getLuck();
-        return specs;
     }
 
     /**
      * Getter for the x-coordinate of the adventurer.
      */
     public int getX() {
-        return this.x;
+        return unpackX(this.store.getPosition(this.unitId));
     }
 
     /**
      * Getter for the y-coordinate of the adventurer.
      */
     public int getY() {
-        return this.y;
+        return unpackY(this.store.getPosition(this.unitId));
+    }
+
+    /**
+     * Getter for both coordinates of the adventurer packed in one word, read them with unpackX and unpackY.
+     */
+    public long getPosition() {
+        return this.store.getPosition(this.unitId);
+    }
+
+    /**
+     * Method that swaps the packed position only if it still holds the expected value, used by lock-free movement.
+     *
+     * @param expected The packed position the caller last read.
+     * @param updated  The packed position to move to.
+     */
+    boolean compareAndSetPosition(long expected, long updated) {
+        return this.store.compareAndSetPosition(this.unitId, expected, updated);
     }
 
     /**
@@ -195,7 +374,8 @@ class Adventurer extends Unit {
      * @param x The x position to be moved to.
      */
     public void setX(int x) {
-        this.x = x;
+        long old = this.store.getAndUpdatePosition(this.unitId, current -> pack(x, unpackY(current)));
+        positionChanged(unpackX(old), unpackY(old));
     }
 
     /**
@@ -204,15 +384,16 @@ class Adventurer extends Unit {
      * @param y The y position to be moved to.
      */
     public void setY(int y) {
-        this.y = y;
+        long old = this.store.getAndUpdatePosition(this.unitId, current -> pack(unpackX(current), y));
+        positionChanged(unpackX(old), unpackY(old));
     }
 
     /**
      * Method to increment the x position of the adventurer.
      */
     public void incrementX() {
-        if (this.x < BattleGrid.getInstance().getX()) {
-            this.x++;
+        if (this.getX() < grid.getX() - 1) {
+            step(1, 0);
         }
     }
 
@@ -220,8 +401,8 @@ class Adventurer extends Unit {
      * Method to decrement the x position of the adventurer.
      */
     public void decrementX() {
-        if (this.x > 0) {
-            this.x--;
+        if (this.getX() > 0) {
+            step(-1, 0);
         }
     }
 
@@ -229,8 +410,8 @@ class Adventurer extends Unit {
      * Method to increment the y position of the adventurer.
      */
     public void incrementY() {
-        if (this.y < BattleGrid.getInstance().getY()) {
-            this.y++;
+        if (this.getY() < grid.getY() - 1) {
+            step(0, 1);
         }
     }
 
@@ -238,8 +419,102 @@ class Adventurer extends Unit {
      * Method to decrement the y position of the adventurer.
      */
     public void decrementY() {
-        if (this.y > 0) {
-            this.y--;
+        if (this.getY() > 0) {
+            step(0, -1);
+        }
+    }
+
+    /**
+     * Method that moves the adventurer one tile. On a lock-free grid the grid claims the new tile and swaps the
+     * position itself, otherwise the position is updated here and the grid is told about the change.
+     *
+     * @param dx The change of the x-coordinate.
+     * @param dy The change of the y-coordinate.
+     */
+    private void step(int dx, int dy) {
+        if (grid.isLockFree()) {
+            grid.stepLockFree(this, dx, dy);
+            return;
+        }
+        long old = this.store.getAndUpdatePosition(this.unitId, current -> pack(unpackX(current) + dx, unpackY(current) + dy));
+        positionChanged(unpackX(old), unpackY(old));
+    }
+
+    /**
+     * Method that packs a pair of coordinates into one position word.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     */
+    static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Method that reads the x-coordinate out of a packed position word.
+     *
+     * @param position The packed position.
+     */
+    static int unpackX(long position) {
+        return (int) (position >> 32);
+    }
+
+    /**
+     * Method that reads the y-coordinate out of a packed position word.
+     *
+     * @param position The packed position.
+     */
+    static int unpackY(long position) {
+        return (int) position;
+    }
+
+    /**
+     * Setter for the grid the adventurer has been placed on, the adventurer's state moves into the grid's store
+     * at its slot and the adventurer becomes a view over it.
+     *
+     * @param grid   The battle grid holding the adventurer.
+     * @param slot   The occupant slot given to the adventurer by the grid.
+     * @param random The random stream given to the adventurer by the grid.
+     */
+    void setGrid(BattleGrid grid, int slot, SplittableRandom random) {
+        AdventurerStore gridStore = grid.getStore();
+        gridStore.copyFrom(slot, this.store, this.unitId);
+        this.store = gridStore;
+        this.unitId = slot;
+        this.grid = grid;
+        this.random = random;
+    }
+
+    /**
+     * Getter for the adventurer's random stream, only drawn from by the thread running the adventurer's actions.
+     */
+    SplittableRandom getRandom() {
+        return this.random;
+    }
+
+    /**
+     * Getter for the battle log of the adventurer's grid.
+     */
+    BattleLog getLog() {
+        return this.grid.getLog();
+    }
+
+    /**
+     * Getter for the occupant slot of the adventurer in its grid.
+     */
+    int getGridSlot() {
+        return this.unitId;
+    }
+
+    /**
+     * Method that tells the grid about a change of coordinates so its occupancy index stays in step.
+     *
+     * @param oldX The x-coordinate before the change.
+     * @param oldY The y-coordinate before the change.
+     */
+    private void positionChanged(int oldX, int oldY) {
+        if (grid != null) {
+            grid.updateOccupancy(this, oldX, oldY);
         }
     }
 
@@ -256,4 +531,20 @@ class Adventurer extends Unit {
     public void incrementTimesMoved() {
         this.timesMoved++;
     }
+
+    /**
+     * Getter for the total damage dealt by the adventurer.
+     */
+    public long getDamageDealt() {
+        return this.damageDealt;
+    }
+
+    /**
+     * Method that adds the damage of one attack to the adventurer's total, called with both fighters locked.
+     *
+     * @param damage The damage dealt by the attack.
+     */
+    void addDamageDealt(int damage) {
+        this.damageDealt += damage;
+    }
 }
\ No newline at end of file
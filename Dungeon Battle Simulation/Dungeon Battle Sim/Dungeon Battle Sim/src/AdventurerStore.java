@@ -0,0 +1,275 @@
+/**
+ * Name: Jonathan Boyle
+ * Date: October 18th 2026
+ * Description: Structure-of-arrays store for the hot state of a population of adventurers.
+ * The packed position, attack, health, luck, class id, weapon id and alive flag of every unit live in parallel primitive
+ * arrays indexed by unit id (the grid slot), so a pass over the whole population walks memory in order instead of
+ * hopping between Adventurer objects. Adventurer is a view over one unit id of a store.
+ * The arrays are split into fixed pages that are never copied once created, so growing the store never races with
+ * lock-free readers and writers of existing units. Positions are compare-and-set and alive flags are volatile
+ * through var handles, everything else is written before the unit is shared.
+ */
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongUnaryOperator;
+
+class AdventurerStore {
+    public static final int GRID_PAGE_SHIFT = 12; //Grid stores keep 4096 units per page, a PHASE_CHUNK of the grid.
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class); //Position access.
+    private static final VarHandle BYTES = MethodHandles.arrayElementVarHandle(byte[].class); //Alive flag access.
+
+    private final int pageShift; //The number of units per page, as a power of two.
+    private final int pageMask; //The units per page - 1, maps a unit id to its index in the page.
+    private volatile Page[] pages = new Page[0]; //The pages, replaced with a longer copy when the store grows.
+    private final ReentrantLock growLock = new ReentrantLock(); //Lock for adding pages.
+
+    /**
+     * Constructor for a store.
+     *
+     * @param pageShift The units per page as a power of two, 0 for a store holding a single detached unit.
+     */
+    AdventurerStore(int pageShift) {
+        this.pageShift = pageShift;
+        this.pageMask = (1 << pageShift) - 1;
+        ensureCapacity(1);
+    }
+
+    /**
+     * Makes sure the store has room for units 0 to capacity - 1, adding pages as needed.
+     *
+     * @param capacity The number of units the store must hold.
+     */
+    void ensureCapacity(int capacity) {
+        int needed = ((capacity - 1) >>> pageShift) + 1;
+        if (pages.length >= needed) {
+            return;
+        }
+        growLock.lock();
+        try {
+            Page[] current = pages;
+            if (current.length < needed) {
+                Page[] grown = Arrays.copyOf(current, needed);
+                for (int i = current.length; i < grown.length; i++) {
+                    grown[i] = new Page(1 << pageShift);
+                }
+                pages = grown;
+            }
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    /**
+     * Copies every field of a unit from another store, used when a detached adventurer is placed on a grid.
+     *
+     * @param id     The unit id in this store.
+     * @param source The store the unit comes from.
+     * @param from   The unit id in the source store.
+     */
+    void copyFrom(int id, AdventurerStore source, int from) {
+        ensureCapacity(id + 1);
+        setPosition(id, source.getPosition(from));
+        setAttack(id, source.getAttack(from));
+        setHealth(id, source.getHealth(from));
+        setLuck(id, source.getLuck(from));
+        setClassId(id, source.getClassId(from));
+        setWeapon(id, source.getWeapon(from));
+        setAlive(id, source.isAlive(from));
+    }
+
+    /**
+     * Method that gives the page of a unit.
+     *
+     * @param id The unit id.
+     */
+    private Page page(int id) {
+        return pages[id >>> pageShift];
+    }
+
+    /**
+     * Getter for the packed position of a unit.
+     *
+     * @param id The unit id.
+     */
+    long getPosition(int id) {
+        return (long) LONGS.getVolatile(page(id).positions, id & pageMask);
+    }
+
+    /**
+     * Setter for the packed position of a unit.
+     *
+     * @param id       The unit id.
+     * @param position The packed position.
+     */
+    void setPosition(int id, long position) {
+        LONGS.setVolatile(page(id).positions, id & pageMask, position);
+    }
+
+    /**
+     * Method that swaps the packed position of a unit only if it still holds the expected value.
+     *
+     * @param id       The unit id.
+     * @param expected The packed position the caller last read.
+     * @param updated  The packed position to move to.
+     */
+    boolean compareAndSetPosition(int id, long expected, long updated) {
+        return LONGS.compareAndSet(page(id).positions, id & pageMask, expected, updated);
+    }
+
+    /**
+     * Method that atomically updates the packed position of a unit and returns the old one.
+     *
+     * @param id     The unit id.
+     * @param update The function computing the new position from the current one.
+     */
+    long getAndUpdatePosition(int id, LongUnaryOperator update) {
+        long[] positions = page(id).positions;
+        int index = id & pageMask;
+        while (true) {
+            long current = (long) LONGS.getVolatile(positions, index);
+            if (LONGS.compareAndSet(positions, index, current, update.applyAsLong(current))) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Getter for whether a unit is alive.
+     *
+     * @param id The unit id.
+     */
+    boolean isAlive(int id) {
+        return (byte) BYTES.getVolatile(page(id).alive, id & pageMask) != 0;
+    }
+
+    /**
+     * Setter for whether a unit is alive.
+     *
+     * @param id    The unit id.
+     * @param alive Whether the unit is alive.
+     */
+    void setAlive(int id, boolean alive) {
+        BYTES.setVolatile(page(id).alive, id & pageMask, (byte) (alive ? 1 : 0));
+    }
+
+    /**
+     * Getter for the attack value of a unit.
+     *
+     * @param id The unit id.
+     */
+    int getAttack(int id) {
+        return page(id).attack[id & pageMask];
+    }
+
+    /**
+     * Setter for the attack value of a unit.
+     *
+     * @param id     The unit id.
+     * @param attack The attack value.
+     */
+    void setAttack(int id, int attack) {
+        page(id).attack[id & pageMask] = attack;
+    }
+
+    /**
+     * Getter for the health value of a unit.
+     *
+     * @param id The unit id.
+     */
+    int getHealth(int id) {
+        return page(id).health[id & pageMask];
+    }
+
+    /**
+     * Setter for the health value of a unit.
+     *
+     * @param id     The unit id.
+     * @param health The health value.
+     */
+    void setHealth(int id, int health) {
+        page(id).health[id & pageMask] = health;
+    }
+
+    /**
+     * Getter for the luck value of a unit.
+     *
+     * @param id The unit id.
+     */
+    int getLuck(int id) {
+        return page(id).luck[id & pageMask];
+    }
+
+    /**
+     * Setter for the luck value of a unit.
+     *
+     * @param id   The unit id.
+     * @param luck The luck value.
+     */
+    void setLuck(int id, int luck) {
+        page(id).luck[id & pageMask] = luck;
+    }
+
+    /**
+     * Getter for the class id of a unit, units with the same class id never fight each other.
+     *
+     * @param id The unit id.
+     */
+    byte getClassId(int id) {
+        return page(id).classId[id & pageMask];
+    }
+
+    /**
+     * Setter for the class id of a unit.
+     *
+     * @param id      The unit id.
+     * @param classId The class id.
+     */
+    void setClassId(int id, byte classId) {
+        page(id).classId[id & pageMask] = classId;
+    }
+
+    /**
+     * Getter for the id of the weapon a unit has equipped.
+     *
+     * @param id The unit id.
+     */
+    byte getWeapon(int id) {
+        return page(id).weapon[id & pageMask];
+    }
+
+    /**
+     * Setter for the id of the weapon a unit has equipped, only written by a battle holding the unit.
+     *
+     * @param id     The unit id.
+     * @param weapon The weapon id.
+     */
+    void setWeapon(int id, byte weapon) {
+        page(id).weapon[id & pageMask] = weapon;
+    }
+
+    /**
+     * One page of units, a slice of every array of the store.
+     */
+    private static final class Page {
+        final long[] positions; //The packed x (high 32 bits) and y (low 32 bits) of every unit.
+        final int[] attack; //The attack value of every unit.
+        final int[] health; //The health value of every unit.
+        final int[] luck; //The luck value of every unit.
+        final byte[] classId; //The class id of every unit.
+        final byte[] weapon; //The equipped weapon id of every unit.
+        final byte[] alive; //1 for every alive unit, 0 otherwise.
+
+        Page(int size) {
+            positions = new long[size];
+            attack = new int[size];
+            health = new int[size];
+            luck = new int[size];
+            classId = new byte[size];
+            weapon = new byte[size];
+            alive = new byte[size];
+        }
+    }
+}
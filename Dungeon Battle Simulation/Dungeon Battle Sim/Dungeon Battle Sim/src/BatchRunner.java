@@ -0,0 +1,183 @@
+/**
+ * Name: Jonathan Boyle
+ * Date: October 18th 2026
+ * Description: Standalone Monte Carlo runner that plays many independent matches across all cores and merges them
+ * into per-class win rates, survival times and damage distributions, and merges every adventurer's DamagePerHit
+ * summary into one per class. Every match has its own grid and statistics
+ * container and runs on the headless TickEngine, so matches share no state.
+ * Arguments: [matches, default 1000] [Time, default 150] [ActionsPerSecond, default 1] [threads, default cores]
+ * [seed, default random]. Each match is seeded from the batch seed, so a batch is reproducible from its seed.
+ */
+
+import Skeleton.SimulationInput;
+import Skeleton.StatisticsContainer;
+import Skeleton.SummaryStatistic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BatchRunner {
+    private static final String[] CLASSES = {"Knight", "Mage", "Rogue", "Healer"}; //The classes reported on.
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        int matches = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        String time = args.length > 1 ? args[1] : "150";
+        String actionsPerSecond = args.length > 2 ? args[2] : "1";
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : new SplittableRandom().nextLong();
+        SplittableRandom seeds = new SplittableRandom(seed);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<MatchResult>> futures = new ArrayList<>(matches);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < matches; i++) {
+                long matchSeed = seeds.nextLong();
+                futures.add(executor.submit(() -> runMatch(time, actionsPerSecond, matchSeed)));
+            }
+            List<MatchResult> results = new ArrayList<>(matches);
+            for (Future<MatchResult> future : futures) {
+                results.add(future.get());
+            }
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            report(results, elapsed, threads, seed);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Plays one match on a fresh grid and statistics container.
+     *
+     * @param time             The Time input of the match.
+     * @param actionsPerSecond The ActionsPerSecond input of the match.
+     * @param seed             The Seed input of the match.
+     */
+    private static MatchResult runMatch(String time, String actionsPerSecond, long seed) {
+        SimulationInput input = new SimulationInput();
+        input.addInput("Time", List.of(time));
+        input.addInput("ActionsPerSecond", List.of(actionsPerSecond));
+        input.addInput("Engine", List.of("Tick"));
+        input.addInput("Seed", List.of(String.valueOf(seed)));
+        //The battle log is off, interleaved from every match at once it would be unreadable and all we measured.
+        input.addInput("LogLevel", List.of("Off"));
+        BattleGrid grid = new BattleGrid(input);
+        Matrix.run(input, grid, StatisticsContainer.newInstance(input));
+        return new MatchResult(grid.getAdventurers());
+    }
+
+    /**
+     * Merges the match results and prints the win rate of every class, the moves its adventurers survived
+     * and the damage they dealt per match, followed by the throughput.
+     *
+     * @param results The results of every match.
+     * @param elapsed The seconds the batch took.
+     * @param threads The threads the batch ran on.
+     * @param seed    The seed of the batch.
+     */
+    private static void report(List<MatchResult> results, double elapsed, int threads, long seed) {
+        Map<String, Integer> wins = new TreeMap<>();
+        Map<String, List<Long>> survival = new TreeMap<>();
+        Map<String, List<Long>> damage = new TreeMap<>();
+        Map<String, SummaryStatistic> hits = new TreeMap<>();
+        for (String name : CLASSES) {
+            wins.put(name, 0);
+            survival.put(name, new ArrayList<>());
+            damage.put(name, new ArrayList<>());
+            hits.put(name, new SummaryStatistic("DamagePerHit"));
+        }
+        int undecided = 0;
+        for (MatchResult result : results) {
+            if (result.winner == null) {
+                undecided++;
+            } else {
+                wins.merge(result.winner, 1, Integer::sum);
+            }
+            for (int i = 0; i < result.classes.length; i++) {
+                survival.get(result.classes[i]).add(result.survival[i]);
+                damage.get(result.classes[i]).add(result.damage[i]);
+                hits.get(result.classes[i]).merge(result.damagePerHit[i]);
+            }
+        }
+
+        System.out.printf("%d matches on %d threads, seed %d%n", results.size(), threads, seed);
+        System.out.printf("%-8s %9s %27s %27s %24s%n", "class", "win rate", "moves survived (mean/p50/p90)",
+                "damage dealt (mean/p50/p90)", "damage/hit (mean/sd/max)");
+        for (String name : CLASSES) {
+            SummaryStatistic hit = hits.get(name);
+            System.out.printf("%-8s %8.1f%% %27s %27s %24s%n", name, 100.0 * wins.get(name) / results.size(),
+                    distribution(survival.get(name)), distribution(damage.get(name)), hit.getCount() == 0 ? "-"
+                            : String.format("%.1f / %.1f / %.0f", hit.getMean(), hit.getStandardDeviation(), hit.getMax()));
+        }
+        System.out.printf("Undecided (no survivors or more than one class left): %.1f%%%n",
+                100.0 * undecided / results.size());
+        System.out.printf("%.1f matches/s (%.2f s)%n", results.size() / elapsed, elapsed);
+    }
+
+    /**
+     * Formats the mean, median and 90th percentile of a list of values.
+     *
+     * @param values The values, sorted in place.
+     */
+    private static String distribution(List<Long> values) {
+        if (values.isEmpty()) {
+            return "-";
+        }
+        Collections.sort(values);
+        double sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return String.format("%.1f / %d / %d", sum / values.size(),
+                values.get(values.size() / 2), values.get((int) (values.size() * 0.9)));
+    }
+}
+
+/**
+ * The outcome of one match: the class of every adventurer, how many moves it survived, the damage it dealt,
+ * and the winning class when every survivor belongs to the same class.
+ */
+class MatchResult {
+    final String[] classes; //The class name of every adventurer.
+    final long[] survival; //The moves every adventurer made before dying or the match ending.
+    final long[] damage; //The damage every adventurer dealt.
+    final SummaryStatistic[] damagePerHit; //The DamagePerHit summary of every adventurer.
+    final String winner; //The class of the survivors, null when none survived or several classes did.
+
+    /**
+     * Constructor that reads the result off the adventurers at the end of a match.
+     *
+     * @param adventurers The adventurers of the match.
+     */
+    MatchResult(List<Adventurer> adventurers) {
+        classes = new String[adventurers.size()];
+        survival = new long[adventurers.size()];
+        damage = new long[adventurers.size()];
+        damagePerHit = new SummaryStatistic[adventurers.size()];
+        String survivor = null;
+        boolean decided = true;
+        for (int i = 0; i < classes.length; i++) {
+            Adventurer adventurer = adventurers.get(i);
+            classes[i] = adventurer.getClass().getSimpleName();
+            survival[i] = adventurer.getTimesMoved(); //An alive adventurer moves once per action.
+            damage[i] = adventurer.getDamageDealt();
+            damagePerHit[i] = adventurer.getDamagePerHit();
+            if (adventurer.isAlive()) {
+                if (survivor == null) {
+                    survivor = classes[i];
+                } else if (!survivor.equals(classes[i])) {
+                    decided = false;
+                }
+            }
+        }
+        winner = decided ? survivor : null;
+    }
+}
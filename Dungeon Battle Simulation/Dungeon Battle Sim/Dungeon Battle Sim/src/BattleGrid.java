@@ -6,93 +6,252 @@
  * This class implements the Singleton Design Pattern.
  */
 
+import Skeleton.SimulationConfig;
+import Skeleton.SimulationInput;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class BattleGrid {
-    private static final int x = 5; //The x size of the grid, immutable.
-    private static final int y = 5; //The y size of the grid, immutable.
+    public static final int DEFAULT_SIZE = 5; //The width and height used when the input does not set them.
+    public static final int MIN_SIZE = 5; //The smallest width or height a grid can have.
+    public static final int MAX_SIZE = 4096; //The largest width or height a grid can have.
+    public static final int DEFAULT_REGION_SIZE = 8; //The side length of a lock region when the input does not set it.
+    public static final long DEFAULT_ROUND_DELAY_MS = 2000; //The pause between battle rounds that keeps the log readable.
+    public static final int PHASE_CHUNK = 4096; //The number of occupant slots one fork-join task handles without splitting.
     private static BattleGrid instance; //The singleton instance of the battlegrid.
+    private final int width; //The x size of the grid, immutable.
+    private final int height; //The y size of the grid, immutable.
     private List<Adventurer> adventurers; //List to store all adventurers
-    private Semaphore movementSemaphore; //Semaphore to control movement access
-    private WeaponSwitcher weaponSwitcher; //WeaponSwitcher object to allow for weapon switching for adventurers.
+    private final boolean lockFree; //True when the MovementMode input is LockFree.
+    //Flat cell array (index = y * width + x) holding the first occupant's slot + 1 for each cell, 0 when empty.
+    private final int[] cellHead;
+    private int[] nextInCell; //For each occupant slot, the next occupant slot + 1 on the same cell, 0 at the end.
+    //Lock-free mode only: flat cell array holding the single resident's slot + 1 for each cell, claimed by compare-and-set.
+    private final AtomicIntegerArray residents;
+    private volatile Adventurer[] occupants; //The adventurer for each occupant slot, read without locks in lock-free mode.
+    //The position, specs and alive flag of each occupant slot in parallel arrays, the phases scan it instead of occupants.
+    private final AdventurerStore store = new AdventurerStore(AdventurerStore.GRID_PAGE_SHIFT);
+    private final ReentrantLock placementLock = new ReentrantLock(); //Lock handing out occupant slots to new adventurers.
+    private final int regionSize; //The side length in cells of the square regions sharing one lock stripe.
+    private final int regionsWide; //The number of regions along the x-axis.
+    //One semaphore per region, a move holds the stripes of its source and destination cells.
+    private final Semaphore[] regionSemaphores;
+    private volatile long roundDelayMs = DEFAULT_ROUND_DELAY_MS; //The pause between battle rounds, 0 when headless.
+    private final long seed; //The seed every random stream of the run is split from.
+    private final SplittableRandom rootRandom; //The root stream, only split while holding the placement lock.
+    private final BattleLog log; //The battle log every message of the run goes through.
 
     /**
-     * Private constructor to prevent instantiation from outside.
-     * Initializes the weapon switcher, list of adventurers and semaphore.
+     * Package-private constructor, the simulation goes through getInstance but benchmarks can build throwaway grids.
+     * Reads the grid size from the GridWidth and GridHeight inputs (DEFAULT_SIZE when missing) and the lock
+     * region size from GridRegionSize (DEFAULT_REGION_SIZE when missing).
+     * The MovementMode input picks Striped (default) or LockFree movement, in LockFree mode every tile holds at
+     * most one adventurer and movement never blocks.
+     * The Seed input seeds the root random stream, each adventurer is given its own split of it when placed.
+     * Without a seed one is picked at random and can be read back with getSeed to reproduce the run.
+     * The LogLevel input sets the level of the grid's battle log.
+     * Initializes the cell array for the mode, list of adventurers and region semaphores.
+     *
+     * @param input The simulation input object for the grid.
+     * @throws RuntimeException When a size is outside MIN_SIZE to MAX_SIZE or the movement mode is unknown,
+     *                          this should fail the entire simulation.
      */
-    private BattleGrid() {
-        weaponSwitcher = new WeaponSwitcher();
+    BattleGrid(SimulationInput input) {
+        width = readSize(input, "GridWidth");
+        height = readSize(input, "GridHeight");
+        String movementMode = input.getStringInput("MovementMode", "Striped");
+        switch (movementMode) {
+            case "Striped":
+                lockFree = false;
+                cellHead = new int[width * height];
+                residents = null;
+                break;
+            case "LockFree":
+                lockFree = true;
+                cellHead = null;
+                residents = new AtomicIntegerArray(width * height);
+                break;
+            default:
+                throw new RuntimeException(String.format("Unknown MovementMode: %s", movementMode));
+        }
+        SimulationConfig config = input.getConfig();
+        seed = config.has("Seed") ? config.getLong("Seed") : new SplittableRandom().nextLong();
+        rootRandom = new SplittableRandom(seed);
+        log = new BattleLog(input);
+        nextInCell = new int[16];
+        occupants = new Adventurer[16];
         adventurers = new ArrayList<>();
-        movementSemaphore = new Semaphore(1); //One permit to enable either movement or battling.
+        regionSize = Math.max(1, input.getIntegerInput("GridRegionSize", DEFAULT_REGION_SIZE));
+        regionsWide = (width + regionSize - 1) / regionSize;
+        regionSemaphores = new Semaphore[regionsWide * ((height + regionSize - 1) / regionSize)];
+        for (int i = 0; i < regionSemaphores.length; i++) {
+            regionSemaphores[i] = new Semaphore(1); //One permit to enable either movement or battling in the region.
+        }
     }
 
     /**
      * GetInstance method for the singleton.
      */
     public static BattleGrid getInstance() {
+        return BattleGrid.getInstance(new SimulationInput());
+    }
+
+    /**
+     * Returns the grid if it exists, otherwise it creates it sized from the given input.
+     *
+     * @param input The simulation input object for the grid.
+     */
+    public static BattleGrid getInstance(SimulationInput input) {
         if (instance == null) {
-            instance = new BattleGrid();
+            instance = new BattleGrid(input);
         }
         return instance;
     }
 
+    /**
+     * Replaces the singleton with an empty grid sized from the given input, so a new simulation does not reuse
+     * the adventurers of the last.
+     *
+     * @param input The simulation input object for the grid.
+     */
+    public static BattleGrid reset(SimulationInput input) {
+        instance = new BattleGrid(input);
+        return instance;
+    }
+
+    /**
+     * Method that reads one dimension of the grid from the input and checks it is in range.
+     *
+     * @param input The simulation input object for the grid.
+     * @param key   The input key holding the dimension.
+     */
+    private static int readSize(SimulationInput input, String key) {
+        int size = input.getIntegerInput(key, DEFAULT_SIZE);
+        if (size < MIN_SIZE || size > MAX_SIZE) {
+            throw new RuntimeException(String.format("%s must be between %d and %d, got %d", key, MIN_SIZE, MAX_SIZE, size));
+        }
+        return size;
+    }
+
     /**
      * Method to add a new adventurer to the grid.
      *
      * @param adventurer The new adventurer subclass being added.
      * @param x          The starting x-coordinate for the adventurer.
      * @param y          The starting y-coordinate for the adventurer.
+     * @return Whether the adventurer was placed, on a lock-free grid the tile must also be empty.
+     * Only a placed adventurer's statistics are registered in its container.
      */
-    public void addAdventurer(Adventurer adventurer, int x, int y) {
-        if (x >= 0 && x <= BattleGrid.x && y >= 0 && y <= BattleGrid.y) {
-            adventurers.add(adventurer);
+    public boolean addAdventurer(Adventurer adventurer, int x, int y) {
+        if (isOnGrid(x, y)) {
             adventurer.setX(x);
             adventurer.setY(y);
+            placementLock.lock();
+            try {
+                int slot = adventurers.size();
+                if (slot == occupants.length) {
+                    //Growing swaps the slot arrays every region reads, so all regions are held while it happens.
+                    acquireAllRegions();
+                    occupants = Arrays.copyOf(occupants, slot * 2);
+                    nextInCell = Arrays.copyOf(nextInCell, slot * 2);
+                    releaseAllRegions();
+                }
+                occupants[slot] = adventurer;
+                if (lockFree) {
+                    if (!residents.compareAndSet(cellIndex(x, y), 0, slot + 1)) {
+                        occupants[slot] = null;
+                        log.log(BattleLog.Event.INVALID_POSITION, adventurer, ", the tile is taken");
+                        return false;
+                    }
+                    adventurers.add(adventurer);
+                    adventurer.setGrid(this, slot, rootRandom.split());
+                    adventurer.registerStatistics();
+                    return true;
+                }
+                int region = regionOf(x, y);
+                regionSemaphores[region].acquireUninterruptibly();
+                adventurers.add(adventurer);
+                //The adventurer is only linked to the grid once placed, so its setters keep the cells up to date from here on.
+                adventurer.setGrid(this, slot, rootRandom.split());
+                linkOccupant(slot, cellIndex(x, y));
+                regionSemaphores[region].release();
+                adventurer.registerStatistics();
+                return true;
+            } finally {
+                placementLock.unlock();
+            }
         } else {
             //If the x or y coordinate is outside the grid, print an error message.
-            System.out.println("Invalid position for adventurer " + adventurer.getName());
+            log.log(BattleLog.Event.INVALID_POSITION, adventurer, "");
+            return false;
         }
     }
 
     /**
-     * Getter for the list of adventurers.
+     * Method that splits a new random stream off the root, for placement and other setup done outside the adventurers.
+     * Streams are split in call order, so a run is only reproducible when setup happens in the same order.
      */
-    public List<Adventurer> getAdventurers() {
-        return adventurers;
+    public SplittableRandom splitRandom() {
+        placementLock.lock();
+        try {
+            return rootRandom.split();
+        } finally {
+            placementLock.unlock();
+        }
+    }
+
+    /**
+     * Getter for the store holding the state of every placed adventurer, indexed by occupant slot.
+     */
+    AdventurerStore getStore() {
+        return store;
     }
 
     /**
-     * Method that uses the weapon switcher to equip a sword weapon for a given adventurer.
+     * Getter for the battle log of the grid.
      */
-    public void equipSword() {
-        weaponSwitcher.setWeaponStrategy(new SwordStrategy());
+    BattleLog getLog() {
+        return log;
     }
 
     /**
-     * Method that uses the weapon switcher to equip a bow weapon for a given adventurer.
+     * Getter for the seed of the grid's random streams.
      */
-    public void equipBow() {
-        weaponSwitcher.setWeaponStrategy(new BowStrategy());
+    public long getSeed() {
+        return seed;
     }
 
     /**
-     * Method that uses the weapon switcher to equip a spear weapon for a given adventurer.
+     * Getter for the list of adventurers.
      */
-    public void equipSpear() {
-        weaponSwitcher.setWeaponStrategy(new SpearStrategy());
+    public List<Adventurer> getAdventurers() {
+        return adventurers;
     }
 
     /**
-     * Method that calls the useWeapon methods from weaponSwitcher to print a statement.
+     * Method that uses the weapon switcher to equip a random weapon of the registry (fists included) for a given
+     * adventurer, the weapon stays equipped after the battle.
+     *
+     * @param adventurer The adventurer being equipped, its combat semaphore is held by the caller.
+     * @param random     The random stream of the battle.
      */
-    public void useEquippedWeapon() {
-        weaponSwitcher.useWeapon();
+    private void equipRandomWeapon(Adventurer adventurer, SplittableRandom random) {
+        WeaponSwitcher.switchWeapon(log, adventurer, WeaponRegistry.get(random.nextInt(WeaponRegistry.size())));
     }
 
     /**
      * Method that check if two adventurers are on the same x and y coordinates, and returns the other if true.
+     * Only the adventurers indexed on the same cell are looked at, so the cost does not grow with the grid population.
+     * On a lock-free grid tiles are never shared, so an enemy on one of the four neighbouring tiles engages instead.
+     * Occupants that are no longer alive never engage.
      *
      * @param adventurer The adventurer that is checking if another adventurer is on the same tile.
      * @throws InterruptedException
@@ -100,14 +259,275 @@ public class BattleGrid {
     public Adventurer isAdventurerEngaged(Adventurer adventurer) throws InterruptedException {
         int x = adventurer.getX();
         int y = adventurer.getY();
-        for (Adventurer other : adventurers) {
-            if (other != adventurer && other.getX() == x && other.getY() == y && !other.getClass().equals(adventurer.getClass())) {
-                return other;
+        if (!isOnGrid(x, y)) {
+            return null;
+        }
+        if (lockFree) {
+            Adventurer other = residentEnemy(adventurer, x + 1, y);
+            if (other == null) other = residentEnemy(adventurer, x - 1, y);
+            if (other == null) other = residentEnemy(adventurer, x, y + 1);
+            if (other == null) other = residentEnemy(adventurer, x, y - 1);
+            return other;
+        }
+        Semaphore regionSemaphore = regionSemaphores[regionOf(x, y)];
+        acquireTimed(regionSemaphore, adventurer);
+        try {
+            for (int link = cellHead[cellIndex(x, y)]; link != 0; link = nextInCell[link - 1]) {
+                Adventurer other = occupants[link - 1];
+                if (other != adventurer && other.isAlive() && other.getClassId() != adventurer.getClassId()) {
+                    return other;
+                }
             }
+        } finally {
+            regionSemaphore.release();
         }
         return null;
     }
 
+    /**
+     * Method that reads the resident of a tile on a lock-free grid and returns it if it is an enemy of the adventurer.
+     *
+     * @param adventurer The adventurer looking for an enemy.
+     * @param x          The x-coordinate of the tile.
+     * @param y          The y-coordinate of the tile.
+     */
+    private Adventurer residentEnemy(Adventurer adventurer, int x, int y) {
+        if (!isOnGrid(x, y)) {
+            return null;
+        }
+        int link = residents.get(cellIndex(x, y));
+        if (link == 0) {
+            return null;
+        }
+        Adventurer other = occupants[link - 1];
+        return other != adventurer && other.isAlive() && other.getClassId() != adventurer.getClassId() ? other : null;
+    }
+
+    /**
+     * Method that moves an adventurer one tile on a lock-free grid without blocking.
+     * The destination tile is claimed first, then the packed position is swapped and the source tile released.
+     * A step into a taken tile, or one that loses a race with another position change, leaves the adventurer in place.
+     *
+     * @param adventurer The adventurer being moved.
+     * @param dx         The change of the x-coordinate.
+     * @param dy         The change of the y-coordinate.
+     */
+    void stepLockFree(Adventurer adventurer, int dx, int dy) {
+        long current = adventurer.getPosition();
+        int oldX = Adventurer.unpackX(current);
+        int oldY = Adventurer.unpackY(current);
+        int newX = oldX + dx;
+        int newY = oldY + dy;
+        if (!isOnGrid(oldX, oldY) || !isOnGrid(newX, newY)) {
+            return;
+        }
+        int link = adventurer.getGridSlot() + 1;
+        int target = cellIndex(newX, newY);
+        if (!residents.compareAndSet(target, 0, link)) {
+            return;
+        }
+        if (!adventurer.compareAndSetPosition(current, Adventurer.pack(newX, newY))) {
+            residents.compareAndSet(target, link, 0);
+            return;
+        }
+        residents.compareAndSet(cellIndex(oldX, oldY), link, 0);
+    }
+
+    /**
+     * Method called by an adventurer whenever its coordinates change, moves it between cells of the cell array.
+     * Placed adventurers are linked into a cell exactly while their coordinates are on the grid,
+     * so adventurers moved off the grid (dead units) are dropped from the cells.
+     * Only the region stripes of the two cells are held, in ascending order so crossing moves cannot deadlock.
+     *
+     * @param adventurer The adventurer that changed position.
+     * @param oldX       The x-coordinate before the change.
+     * @param oldY       The y-coordinate before the change.
+     */
+    void updateOccupancy(Adventurer adventurer, int oldX, int oldY) {
+        int newX = adventurer.getX();
+        int newY = adventurer.getY();
+        if (oldX == newX && oldY == newY) {
+            return;
+        }
+        boolean wasOnGrid = isOnGrid(oldX, oldY);
+        boolean isOnGrid = isOnGrid(newX, newY);
+        if (!wasOnGrid && !isOnGrid) {
+            return;
+        }
+        if (lockFree) {
+            //Direct coordinate changes release the old tile and claim the new one only if it is free.
+            int link = adventurer.getGridSlot() + 1;
+            if (wasOnGrid) {
+                residents.compareAndSet(cellIndex(oldX, oldY), link, 0);
+            }
+            if (isOnGrid) {
+                residents.compareAndSet(cellIndex(newX, newY), 0, link);
+            }
+            return;
+        }
+        //Off-grid coordinates have no stripe, so the on-grid side stands in for both.
+        int fromRegion = wasOnGrid ? regionOf(oldX, oldY) : regionOf(newX, newY);
+        int toRegion = isOnGrid ? regionOf(newX, newY) : fromRegion;
+        int firstRegion = Math.min(fromRegion, toRegion);
+        int secondRegion = Math.max(fromRegion, toRegion);
+        acquireTimedUninterruptibly(regionSemaphores[firstRegion], adventurer);
+        if (secondRegion != firstRegion) {
+            acquireTimedUninterruptibly(regionSemaphores[secondRegion], adventurer);
+        }
+        int slot = adventurer.getGridSlot();
+        if (wasOnGrid) {
+            unlinkOccupant(slot, cellIndex(oldX, oldY));
+        }
+        if (isOnGrid) {
+            linkOccupant(slot, cellIndex(newX, newY));
+        }
+        if (secondRegion != firstRegion) {
+            regionSemaphores[secondRegion].release();
+        }
+        regionSemaphores[firstRegion].release();
+    }
+
+    /**
+     * Setter for the pause between battle rounds, the tick engine sets it to 0 to run as fast as it can.
+     * The pause still goes through the Pacing of the adventurer that started the battle.
+     *
+     * @param roundDelayMs The pause in milliseconds.
+     */
+    public void setRoundDelay(long roundDelayMs) {
+        this.roundDelayMs = roundDelayMs;
+    }
+
+    /**
+     * Getter for whether the grid runs lock-free movement.
+     */
+    public boolean isLockFree() {
+        return lockFree;
+    }
+
+    /**
+     * Method that acquires a semaphore for an adventurer, timing the wait into the adventurer's LockWait only
+     * when the semaphore is not free, so the uncontended path never reads the clock.
+     *
+     * @param semaphore  The semaphore to acquire.
+     * @param adventurer The adventurer the wait is charged to.
+     * @throws InterruptedException
+     */
+    private static void acquireTimed(Semaphore semaphore, Adventurer adventurer) throws InterruptedException {
+        if (semaphore.tryAcquire()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            semaphore.acquire();
+        } finally {
+            adventurer.addLockWait(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Method that acquires a semaphore for an adventurer without interruption, timing the wait like acquireTimed.
+     *
+     * @param semaphore  The semaphore to acquire.
+     * @param adventurer The adventurer the wait is charged to.
+     */
+    private static void acquireTimedUninterruptibly(Semaphore semaphore, Adventurer adventurer) {
+        if (semaphore.tryAcquire()) {
+            return;
+        }
+        long start = System.nanoTime();
+        semaphore.acquireUninterruptibly();
+        adventurer.addLockWait(System.nanoTime() - start);
+    }
+
+    /**
+     * Method that acquires every region stripe in ascending order, used when the whole grid has to stop.
+     */
+    private void acquireAllRegions() {
+        for (Semaphore regionSemaphore : regionSemaphores) {
+            regionSemaphore.acquireUninterruptibly();
+        }
+    }
+
+    /**
+     * Method that releases every region stripe taken by acquireAllRegions.
+     */
+    private void releaseAllRegions() {
+        for (int i = regionSemaphores.length - 1; i >= 0; i--) {
+            regionSemaphores[i].release();
+        }
+    }
+
+    /**
+     * Method that pushes an occupant slot onto the front of a cell's list, the caller holds the cell's region stripe.
+     *
+     * @param slot The occupant slot of the adventurer.
+     * @param cell The index of the cell in the cell array.
+     */
+    private void linkOccupant(int slot, int cell) {
+        nextInCell[slot] = cellHead[cell];
+        cellHead[cell] = slot + 1;
+    }
+
+    /**
+     * Method that removes an occupant slot from a cell's list, the caller holds the cell's region stripe.
+     *
+     * @param slot The occupant slot of the adventurer.
+     * @param cell The index of the cell in the cell array.
+     */
+    private void unlinkOccupant(int slot, int cell) {
+        if (cellHead[cell] == slot + 1) {
+            cellHead[cell] = nextInCell[slot];
+            return;
+        }
+        for (int link = cellHead[cell]; link != 0; link = nextInCell[link - 1]) {
+            if (nextInCell[link - 1] == slot + 1) {
+                nextInCell[link - 1] = nextInCell[slot];
+                return;
+            }
+        }
+    }
+
+    /**
+     * Method that checks whether an adventurer can be placed at a tile: it is on the grid and, on a lock-free grid,
+     * nobody lives there. Tiles of a striped grid hold any number of adventurers.
+     *
+     * @param x The x-coordinate being checked.
+     * @param y The y-coordinate being checked.
+     */
+    public boolean isFree(int x, int y) {
+        return isOnGrid(x, y) && (!lockFree || residents.get(cellIndex(x, y)) == 0);
+    }
+
+    /**
+     * Method that checks if a coordinate is a tile of the grid.
+     *
+     * @param x The x-coordinate being checked.
+     * @param y The y-coordinate being checked.
+     */
+    private boolean isOnGrid(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    /**
+     * Method that converts a coordinate to the index of its cell in the cell array.
+     *
+     * @param x The x-coordinate of the cell.
+     * @param y The y-coordinate of the cell.
+     */
+    private int cellIndex(int x, int y) {
+        return y * width + x;
+    }
+
+    /**
+     * Method that converts a coordinate to the index of the region stripe guarding it.
+     *
+     * @param x The x-coordinate of the cell.
+     * @param y The y-coordinate of the cell.
+     */
+    private int regionOf(int x, int y) {
+        return (y / regionSize) * regionsWide + x / regionSize;
+    }
+
     /**
      * Method that moves the adventurer calling it, checks for battle and records the move statistic.
      *
@@ -115,10 +535,248 @@ public class BattleGrid {
      * @throws InterruptedException
      */
     public void simulateMovement(Adventurer adventurer) throws InterruptedException {
-        movementSemaphore.acquire(); //Semaphore is acquired for movement.
-        //A random number between 1 and 4, and a switch case are used to determine movement decisions.
-        int random_int = (int) Math.floor(Math.random() * (4 - 1 + 1) + 1);
-        switch (random_int) {
+        //The adventurer's combat semaphore is held for the move, so an adventurer in a battle stays where it is.
+        //A lock-free grid never waits for it, the move is skipped until the battle is over.
+        Semaphore combatSemaphore = adventurer.getCombatSemaphore();
+        if (lockFree) {
+            if (!combatSemaphore.tryAcquire()) {
+                return;
+            }
+        } else {
+            acquireTimed(combatSemaphore, adventurer);
+        }
+        Adventurer other;
+        try {
+            simulateStep(adventurer);
+            other = isAdventurerEngaged(adventurer);
+        } finally {
+            combatSemaphore.release();
+        }
+        if (other != null) {
+            //If there is another adventurer on the same tile, simulate a battle between the two.
+            simulateBattle(adventurer, other);
+        }
+    }
+
+    /**
+     * Method that moves the adventurer one random step, logs the new coordinates and records the move statistic.
+     * Used on its own by the tick engine, which checks for battles after every adventurer has moved.
+     *
+     * @param adventurer The adventurer being moved.
+     */
+    void simulateStep(Adventurer adventurer) {
+        //A random number between 1 and 4 from the adventurer's own stream is used to determine movement decisions.
+        int random_int = adventurer.getRandom().nextInt(1, 5);
+        simulateStep(adventurer, random_int);
+    }
+
+    /**
+     * Method that moves the adventurer one step in a chosen direction, logs the new coordinates and records the move statistic.
+     *
+     * @param adventurer The adventurer being moved.
+     * @param direction  The direction of the step, 1 to 4.
+     */
+    private void simulateStep(Adventurer adventurer, int direction) {
+        moveAdventurer(adventurer, direction);
+        //The new coordinates are output in the log.
+        log.log(BattleLog.Event.MOVE, adventurer, null, adventurer.getX(), adventurer.getY(), adventurer.getTimesMoved(), null);
+        adventurer.getMovesPerformed().increment(); //The statistic is recorded.
+    }
+
+    /**
+     * Fork-join move phase for tick-based runs: every adventurer takes one action, as TickEngine's move phase does.
+     * Directions are picked for the whole population in parallel chunks first. The steps are then applied in
+     * parallel on a striped grid, where tiles are shared and the region stripes keep the cells consistent.
+     * On a lock-free grid they are applied in ascending slot order, so when two adventurers step onto the same
+     * free tile the lower slot always gets it.
+     * Must not run alongside other movement on the grid.
+     *
+     * @param pool The pool running the chunks.
+     */
+    public void parallelMovePhase(ForkJoinPool pool) {
+        int population = adventurers.size();
+        Adventurer[] slots = occupants;
+        byte[] directions = new byte[population];
+        forEachSlot(pool, population, slot -> {
+            Adventurer adventurer = slots[slot];
+            adventurer.beginAction();
+            if (adventurer.isAlive()) {
+                directions[slot] = (byte) adventurer.getRandom().nextInt(1, 5);
+            } else {
+                adventurer.leaveGrid(); //Dead adventurers are moved off the grid.
+            }
+        });
+        SlotAction commit = slot -> {
+            Adventurer adventurer = slots[slot];
+            if (directions[slot] != 0) {
+                simulateStep(adventurer, directions[slot]);
+            }
+            adventurer.submitStatistics();
+            adventurer.endAction();
+        };
+        if (lockFree) {
+            for (int slot = 0; slot < population; slot++) {
+                commit.apply(slot);
+            }
+        } else {
+            forEachSlot(pool, population, commit);
+        }
+    }
+
+    /**
+     * Fork-join collision phase for tick-based runs, finds the enemy pairs to fight after a move phase.
+     * Every alive adventurer looks up the lowest-slot alive enemy it is engaged with (same tile, or a neighbouring
+     * tile on a lock-free grid, the rule isAdventurerEngaged applies) in parallel chunks. Pairs are then accepted in
+     * ascending slot order, skipping adventurers that already have a fight, so the result never depends on timing.
+     * Must not run alongside movement on the grid.
+     *
+     * @param pool The pool running the chunks.
+     * @return The pairs to fight, each adventurer appears in at most one.
+     */
+    public List<Adventurer[]> parallelCollisionPhase(ForkJoinPool pool) {
+        int population = adventurers.size();
+        int[] enemies = new int[population]; //The enemy slot + 1 for each slot, 0 when not engaged.
+        forEachSlot(pool, population, slot -> {
+            if (store.isAlive(slot)) {
+                enemies[slot] = lowestEnemySlot(slot) + 1;
+            }
+        });
+        return acceptPairs(enemies);
+    }
+
+    /**
+     * Sequential collision phase for tick-based runs, finds the same pairs as parallelCollisionPhase on the calling
+     * thread, so a run picks the same opponents whichever way its phases run.
+     * Must not run alongside movement on the grid.
+     *
+     * @return The pairs to fight, each adventurer appears in at most one.
+     */
+    public List<Adventurer[]> collisionPhase() {
+        int population = adventurers.size();
+        int[] enemies = new int[population]; //The enemy slot + 1 for each slot, 0 when not engaged.
+        for (int slot = 0; slot < population; slot++) {
+            if (store.isAlive(slot)) {
+                enemies[slot] = lowestEnemySlot(slot) + 1;
+            }
+        }
+        return acceptPairs(enemies);
+    }
+
+    /**
+     * Method that accepts the pairs of a collision phase in ascending slot order, skipping adventurers that
+     * already have a fight.
+     *
+     * @param enemies The lowest enemy slot + 1 of every slot, 0 when it is not engaged.
+     * @return The pairs to fight, each adventurer appears in at most one.
+     */
+    private List<Adventurer[]> acceptPairs(int[] enemies) {
+        int population = enemies.length;
+        Adventurer[] slots = occupants;
+        List<Adventurer[]> battles = new ArrayList<>();
+        boolean[] engaged = new boolean[population];
+        for (int slot = 0; slot < population; slot++) {
+            int enemy = enemies[slot] - 1;
+            if (enemy >= 0 && !engaged[slot] && !engaged[enemy]) {
+                engaged[slot] = true;
+                engaged[enemy] = true;
+                battles.add(new Adventurer[]{slots[slot], slots[enemy]});
+            }
+        }
+        return battles;
+    }
+
+    /**
+     * Fork-join battle phase for tick-based runs, the pairs from parallelCollisionPhase share no adventurer
+     * so they are fought in parallel.
+     *
+     * @param pool    The pool running the battles.
+     * @param battles The pairs of adventurers to fight.
+     */
+    public void parallelBattlePhase(ForkJoinPool pool, List<Adventurer[]> battles) {
+        forEachSlot(pool, battles.size(), index -> {
+            Adventurer[] battle = battles.get(index);
+            try {
+                simulateBattle(battle[0], battle[1]);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    /**
+     * Method that finds the lowest-slot alive enemy an adventurer is engaged with, reading the cells without the
+     * region stripes since no movement runs during a collision phase. Only the store is read, no Adventurer object.
+     *
+     * @param slot The occupant slot of the adventurer looking for an enemy.
+     * @return The enemy's occupant slot, -1 when there is none.
+     */
+    private int lowestEnemySlot(int slot) {
+        long position = store.getPosition(slot);
+        int x = Adventurer.unpackX(position);
+        int y = Adventurer.unpackY(position);
+        if (!isOnGrid(x, y)) {
+            return -1;
+        }
+        byte classId = store.getClassId(slot);
+        int lowest = Integer.MAX_VALUE;
+        if (lockFree) {
+            lowest = lowerEnemyResident(lowest, classId, x + 1, y);
+            lowest = lowerEnemyResident(lowest, classId, x - 1, y);
+            lowest = lowerEnemyResident(lowest, classId, x, y + 1);
+            lowest = lowerEnemyResident(lowest, classId, x, y - 1);
+        } else {
+            for (int link = cellHead[cellIndex(x, y)]; link != 0; link = nextInCell[link - 1]) {
+                int other = link - 1;
+                if (other != slot && store.isAlive(other) && store.getClassId(other) != classId) {
+                    lowest = Math.min(lowest, other);
+                }
+            }
+        }
+        return lowest == Integer.MAX_VALUE ? -1 : lowest;
+    }
+
+    /**
+     * Method that reads the resident of a tile on a lock-free grid from the store and keeps the lower of its slot
+     * and the lowest slot so far, when it is an alive enemy.
+     *
+     * @param lowest  The lowest enemy slot so far, Integer.MAX_VALUE when none.
+     * @param classId The class id of the adventurer looking for an enemy.
+     * @param x       The x-coordinate of the tile.
+     * @param y       The y-coordinate of the tile.
+     */
+    private int lowerEnemyResident(int lowest, byte classId, int x, int y) {
+        if (!isOnGrid(x, y)) {
+            return lowest;
+        }
+        int other = residents.get(cellIndex(x, y)) - 1;
+        if (other < 0 || !store.isAlive(other) || store.getClassId(other) == classId) {
+            return lowest;
+        }
+        return Math.min(lowest, other);
+    }
+
+    /**
+     * Method that runs an action for every index below a count, split into PHASE_CHUNK sized fork-join tasks.
+     *
+     * @param pool   The pool running the chunks.
+     * @param count  The number of indexes.
+     * @param action The action run for every index.
+     */
+    private static void forEachSlot(ForkJoinPool pool, int count, SlotAction action) {
+        if (count > 0) {
+            pool.invoke(new SlotRangeTask(action, 0, count));
+        }
+    }
+
+    /**
+     * Method that moves an adventurer one step, the region stripes are taken by the adventurer's coordinate setters.
+     *
+     * @param adventurer The adventurer being moved.
+     * @param direction  The direction of the step, 1 to 4.
+     */
+    void moveAdventurer(Adventurer adventurer, int direction) {
+        //A switch case is used to turn the direction into a step.
+        switch (direction) {
             case 1: //x++ if random int is 1.
                 adventurer.incrementX();
                 break;
@@ -133,20 +791,16 @@ public class BattleGrid {
                 break;
         }
         adventurer.incrementTimesMoved(); //Times moved is incremented to fit the new move.
-        System.out.println(adventurer.getName() + " coordinates are " + adventurer.getX() + ", " + adventurer.getY()
-                + " after move " + adventurer.getTimesMoved()); //The new coordinates are output in the log.
-        adventurer.getStats().getStatistic("MovesPerformed").addValue(1); //The statistic is recorded.
-        movementSemaphore.release(); //The semaphore is released since movement is over.
-        if (isAdventurerEngaged(adventurer) != null) {
-            //If there is another adventurer on the same tile, simulate a battle between the two.
-            Adventurer other = isAdventurerEngaged(adventurer);
-            simulateBattle(adventurer, other);
-        }
     }
 
     /**
      * Method that makes the two adventurers battle, and outputs the winner.
-     * This method uses the same semaphore for battle, so movement cannot be initiated during battle.
+     * This method holds only the combat semaphores of the two fighters, taken in grid slot order so two battles
+     * can never wait on each other, the rest of the grid keeps moving and fighting during the battle.
+     * The fight is skipped if either adventurer died or left the tile (or on a lock-free grid, stopped being
+     * next to each other) before both semaphores were acquired.
+     * A fighter's weapon is only switched while its combat semaphore is held, so concurrent battles never see
+     * each other's weapon switches.
      * This method also controls the weapon assignment, and potion creating, as well as the adventurer mood.
      *
      * @param adv   The first adventurer fighting in the battle.
@@ -154,58 +808,107 @@ public class BattleGrid {
      * @throws InterruptedException
      */
     public void simulateBattle(Adventurer adv, Adventurer other) throws InterruptedException {
-        movementSemaphore.acquire(); //Semaphore is acquired for the battle.
-        System.out.println("    >" + adv.getName() + " is engaged in combat with " + other.getName());
-        //The potion builder object is created, and a new potion is generated and output in the log.
-        PotionBuilder potionBuilder = new PotionBuilder();
-        String potion = potionBuilder.createPotion();
-        System.out.println("    >Potion created: " + potion);
-        //The specs (atk, hp, lck) for the two adventurers are saved in arrays.
-        int[] aOneSpecs = adv.getSpecs();
-        int[] aTwoSpecs = other.getSpecs();
-        //A weapon is generated for the two adventurers using a random int and switch case.
-        int wpnChoice = (int) Math.floor(Math.random() * (4 - 1 + 1) + 1);
-        switch (wpnChoice) {
-            case 1:
-                break; //fighting with fists.
-            case 2:
-                equipSword(); //fighting with sword.
-            case 3:
-                equipBow(); //fighting with bow.
-            case 4:
-                equipSpear(); //fighting with spear.
-        }
-        //The weapon being used is printed out.
-        System.out.print("    >" + adv.getName() + " is ");
-        useEquippedWeapon();
+        //The combat semaphores are acquired lowest grid slot first.
+        boolean advFirst = adv.getGridSlot() < other.getGridSlot();
+        Semaphore firstSemaphore = (advFirst ? adv : other).getCombatSemaphore();
+        Semaphore secondSemaphore = (advFirst ? other : adv).getCombatSemaphore();
+        acquireTimed(firstSemaphore, adv);
+        try {
+            acquireTimed(secondSemaphore, adv);
+        } catch (InterruptedException e) {
+            firstSemaphore.release();
+            throw e;
+        }
+        try {
+            int distance = Math.abs(other.getX() - adv.getX()) + Math.abs(other.getY() - adv.getY());
+            if (adv.isAlive() && other.isAlive() && distance == (lockFree ? 1 : 0)) {
+                fight(adv, other);
+            }
+        } finally {
+            //The combat semaphores are released so the fighters can move again after the fight is over.
+            secondSemaphore.release();
+            firstSemaphore.release();
+        }
+    }
+
+    /**
+     * Method that runs a battle between two adventurers whose combat semaphores are held by the caller.
+     * Everything the battle needs comes from a reused CombatState, so no attack allocates.
+     *
+     * @param adv   The first adventurer fighting in the battle.
+     * @param other The second adventure fighting in the battle.
+     * @throws InterruptedException
+     */
+    private void fight(Adventurer adv, Adventurer other) throws InterruptedException {
+        CombatState state = CombatState.acquire();
+        try {
+            fight(adv, other, state);
+        } finally {
+            CombatState.release(state);
+        }
+    }
+
+    /**
+     * Method that runs a battle with the combat state it was given.
+     *
+     * @param adv   The first adventurer fighting in the battle.
+     * @param other The second adventure fighting in the battle.
+     * @param state The combat state of the battle.
+     * @throws InterruptedException
+     */
+    private void fight(Adventurer adv, Adventurer other, CombatState state) throws InterruptedException {
+        //The battle draws straight from the stream of the adventurer that started it, only this thread draws from it
+        //while the combat semaphores are held, so no stream is split off per battle.
+        SplittableRandom random = adv.getRandom();
+        //The specs (atk, hp, lck) for the two adventurers are copied into the battle arrays.
+        state.begin(adv, other);
+        log.log(BattleLog.Event.ENGAGED, adv, other, 0, 0, 0, null);
+        int[] aOneSpecs = state.firstSpecs;
+        int[] aTwoSpecs = state.secondSpecs;
+        //A new potion is generated and output in the log, the adventurer that started the battle drinks it.
+        PotionCatalog catalog = state.potionBuilder.getCatalog();
+        int potion = state.potionBuilder.createPotion(random);
+        catalog.apply(potion, aOneSpecs);
+        log.log(BattleLog.Event.POTION, adv, null, potion, 0, 0, catalog.getName(potion));
+        //A weapon is equipped for each of the two adventurers, and the weapons being used are output in the log.
+        equipRandomWeapon(adv, random);
+        equipRandomWeapon(other, random);
+        //The fighter with the longer reach strikes first, the adventurer that started the battle wins a tie.
+        boolean advFirst = WeaponRegistry.getRange(adv.getWeaponId()) >= WeaponRegistry.getRange(other.getWeaponId());
+        Adventurer first = advFirst ? adv : other;
+        Adventurer second = advFirst ? other : adv;
+        int[] firstSpecs = advFirst ? aOneSpecs : aTwoSpecs;
+        int[] secondSpecs = advFirst ? aTwoSpecs : aOneSpecs;
         //While loop for the fighting, while both adventurers are still alive the battle continues.
-        while (adv.isAlive() && other.isAlive()) {
-            //The first adventurer attacks, if the second is killed from this attack, break from the loop.
-            advAttack(adv, other, aOneSpecs, aTwoSpecs);
-            if (!other.isAlive()) break;
-            //The second adventurer attacks.
-            advAttack(other, adv, aTwoSpecs, aOneSpecs);
-            System.out.println("-------------------------------");
-            //Sleep for 2 seconds between turn sets to make the log easier to follow when generating.
-            Thread.sleep(2000);
+        int rounds = 0;
+        while (first.isAlive() && second.isAlive()) {
+            rounds++;
+            //The first striker attacks, if the other is killed from this attack, break from the loop.
+            advAttack(first, second, firstSpecs, secondSpecs, random);
+            if (!second.isAlive()) break;
+            //The other adventurer attacks.
+            advAttack(second, first, secondSpecs, firstSpecs, random);
+            log.log(BattleLog.Event.ROUND_END, null, null);
+            //Sleep between turn sets (2 seconds by default) to make the log easier to follow when generating,
+            //through the initiator's pacing so Scaled shortens it and None skips it.
+            adv.getPacing().sleep(roundDelayMs);
         }
+        adv.getBattleRounds().add(rounds);
+        other.getBattleRounds().add(rounds);
         //If the first adventurer is alive and the second is dead, print that the first has won.
         if (adv.isAlive() && !other.isAlive()) {
-            System.out.println("    >" + adv.getName() + " won the battle");
-            System.out.println("    >" + other.getName() + " is defeated");
+            log.log(BattleLog.Event.WON, adv, other, 0, 0, 0, null);
+            adv.getHealthRemaining().add(aOneSpecs[1]);
         }
         //if the second adventurer is alive and the second dead, print that the second has won.
         else if (!adv.isAlive() && other.isAlive()) {
-            System.out.println("    >" + other.getName() + " won the battle");
-            System.out.println("    >" + adv.getName() + " is defeated");
-
+            log.log(BattleLog.Event.WON, other, adv, 0, 0, 0, null);
+            other.getHealthRemaining().add(aTwoSpecs[1]);
         }
         //If both die on the same turn, the fight is a draw (only possible through Mage Black Magic skill)./
         else {
-            System.out.println("Both fighters have been defeated in a Draw!");
+            log.log(BattleLog.Event.DRAW, null, null);
         }
-        //The semaphore is released for use in movement after the fight it over.
-        movementSemaphore.release();
     }
 
     /**
@@ -215,14 +918,24 @@ public class BattleGrid {
      * @param other         The adventurer who is being attacked on the turn.
      * @param attackerSpecs The array of specs for the attacker adventure.
      * @param otherSpecs    The array of specs for the attacked adventurer.
+     * @param random        The random stream of the battle.
      * @throws InterruptedException
      */
-    private void advAttack(Adventurer attacker, Adventurer other, int[] attackerSpecs, int[] otherSpecs) throws InterruptedException {
+    private void advAttack(Adventurer attacker, Adventurer other, int[] attackerSpecs, int[] otherSpecs,
+                           SplittableRandom random) throws InterruptedException {
+        //The attacker's mood modifies its attack and luck for the attack.
+        MoodState mood = attacker.getCurrentMoodState();
+        int luck = Math.max(0, attackerSpecs[2] + mood.luckModifier);
         //Random int decides how much the luck will boost the attack (10 lck = *1. 20 lck = *1 or *2, etc.)
-        int luckBoost = (int) Math.floor(Math.random() * ((attackerSpecs[2] * 0.1) - 1 + 1) + 1);
-        int attackerDamage = attackerSpecs[0] * luckBoost;
+        int luckBoost = (int) Math.floor(random.nextDouble() * ((luck * 0.1) - 1 + 1) + 1);
+        //The equipped weapon's damage is added before the luck boost, and a critical hit doubles the attack.
+        int weapon = attacker.getWeaponId();
+        int attackerDamage = (attackerSpecs[0] + WeaponRegistry.getDamage(weapon) + mood.attackModifier) * luckBoost;
+        if (random.nextInt(100) < WeaponRegistry.getCritChance(weapon)) {
+            attackerDamage = attackerDamage * 2;
+        }
         //initiateUniqueSkill method is called to decide if the unique skill will be used on the turn.
-        if (initiateUniqueSkill()) {
+        if (initiateUniqueSkill(random)) {
             //The unique skill for the specific subclass of adventurer is called.
             int uniqueSkillType = attacker.uniqueSkill();
             //Depending on the unique skill, run the associated logic.
@@ -238,7 +951,7 @@ public class BattleGrid {
                     break;
                 //Gambling picks a 50/50, if 1 it doubles the luck of the Rogue, if 2 it decreases lck to 10.
                 case 3:
-                    int gamblingResult = (int) Math.floor(Math.random() * (2 - 1 + 1) + 1);
+                    int gamblingResult = random.nextInt(1, 3);
                     if (gamblingResult == 1)
                         attackerSpecs[2] = attackerSpecs[2] * 2;
                     else
@@ -250,25 +963,33 @@ public class BattleGrid {
             }
         }
         //Log output for the damage dealt, and addition to the statistic for attacks performed.
-        System.out.println("    >" + attacker.getName() + " attacks: deals " + attackerDamage + " damage.");
-        attacker.getStats().getStatistic("AttacksPerformed").addValue(1);
+        log.log(BattleLog.Event.ATTACK, attacker, other, attackerDamage, 0, 0, null);
+        attacker.getAttacksPerformed().increment();
+        attacker.getDamagePerHit().add(attackerDamage);
+        attacker.addDamageDealt(attackerDamage);
         //Health of the attacked adventurer is decreased, new health value is printed.
         otherSpecs[1] = otherSpecs[1] - attackerDamage;
-        System.out.println("    >" + other.getName() + " health is now " + otherSpecs[1]);
+        log.log(BattleLog.Event.HEALTH, other, otherSpecs[1]);
         //If at the end of this the attacked adventurer is dead, signal that it is dead using makeDead.
         if (checkDead(otherSpecs[1])) {
             other.makeDead();
+            log.log(BattleLog.Event.DEATH, other, null);
+            other.changeMood(other.getCurrentMoodState().onDeath());
             //Output the mood of the winner after the battle using the moodState object and methods.
-            MoodState moodState = determineMoodState(attackerSpecs);
-            attacker.setCurrentMoodState(moodState);
+            attacker.setCurrentMoodState(attacker.getCurrentMoodState().onVictory(attackerSpecs[1]));
+        } else {
+            //The hit moves the mood of the attacked adventurer along.
+            other.changeMood(other.getCurrentMoodState().onDamaged(otherSpecs[1]));
         }
     }
 
     /**
      * Method to decide if unique skill is initiated, 50/50 change between 1 and 2.
+     *
+     * @param random The random stream of the battle.
      */
-    public boolean initiateUniqueSkill() {
-        int random_int = (int) Math.floor(Math.random() * (2 - 1 + 1) + 1);
+    public boolean initiateUniqueSkill(SplittableRandom random) {
+        int random_int = random.nextInt(1, 3);
         return random_int == 2;
     }
 
@@ -281,30 +1002,12 @@ public class BattleGrid {
         return health <= 0;
     }
 
-    /**
-     * Method to determine the mood state of an adventure.
-     *
-     * @param advSpecs The array of specs for the adventurer being examined.
-     */
-    private MoodState determineMoodState(int[] advSpecs) {
-        //If the adventurer's hp is above 40, the adventurer is happy.
-        if (advSpecs[1] > 40) {
-            return new HappyMoodState();
-        }
-        //If the adventurer's hp is below 40, the adventurer is angry.
-        else if (advSpecs[1] <= 39 && advSpecs[1] > 0) {
-            return new AngryMoodState();
-        }
-        //if the adventurer is dead, they are neutral.
-        else {
-            return new NeutralMoodState();
-        }
-    }
-
     /**
      * Method that outputs the list of surviving adventurers at the end of the simulation.
+     * The battle log is flushed first so the list comes after the last battle.
      */
     public void survivingUnits() {
+        log.flush();
         int unitCount = 0;
         for (Adventurer adventurer : adventurers) {
             if (adventurer.isAlive()) {
@@ -321,13 +1024,58 @@ public class BattleGrid {
      * Getter for the x size of the grid.
      */
     public int getX() {
-        return x;
+        return width;
     }
 
     /**
      * Getter for the y size of the grid.
      */
     public int getY() {
-        return y;
+        return height;
+    }
+}
+
+/**
+ * The action a fork-join phase runs for every occupant slot of the grid.
+ */
+interface SlotAction {
+    void apply(int slot);
+}
+
+/**
+ * Fork-join task that runs a slot action over a range of slots, splitting the range in half until it is no larger
+ * than BattleGrid.PHASE_CHUNK.
+ */
+@SuppressWarnings("serial") //RecursiveAction is Serializable, but a task is never serialized.
+class SlotRangeTask extends RecursiveAction {
+    private final SlotAction action; //The action run for every slot.
+    private final int from; //The first slot of the range.
+    private final int to; //The slot after the last one of the range.
+
+    /**
+     * Constructor for a task over a range of slots.
+     *
+     * @param action The action run for every slot.
+     * @param from   The first slot of the range.
+     * @param to     The slot after the last one of the range.
+     */
+    SlotRangeTask(SlotAction action, int from, int to) {
+        this.action = action;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Runs the range directly when it is small enough, otherwise splits it in two subtasks.
+     */
+    protected void compute() {
+        if (to - from <= BattleGrid.PHASE_CHUNK) {
+            for (int slot = from; slot < to; slot++) {
+                action.apply(slot);
+            }
+        } else {
+            int middle = (from + to) >>> 1;
+            invokeAll(new SlotRangeTask(action, from, middle), new SlotRangeTask(action, middle, to));
+        }
     }
 }
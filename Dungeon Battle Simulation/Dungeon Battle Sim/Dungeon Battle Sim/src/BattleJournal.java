@@ -0,0 +1,543 @@
+/**
+ * Name: Jonathan Boyle
+ * Date: October 18th 2026
+ * Description: Binary journal of a run, written with NIO when the Journal input names a file.
+ * Every move, engagement, attack, unique skill, potion, death and tick is appended by the battle log's writer as a
+ * small fixed-layout record, a sparse index of (offset, tick, battle) entries goes to a ".idx" file next to it.
+ * The header holds the run's input and every adventurer's specs, and a final record holds the summary of every
+ * statistic in the run's StatisticsContainer, so a replay can run the same seeded engine again and diff the result.
+ * The Reader maps the journal into memory and uses the index to jump to a tick or battle without parsing the file.
+ *
+ * Layout (big-endian): magic, seed, width, height, input count, then key, value count and values of every input
+ * but Journal, adventurer count, then class, name, attack, health, luck, x and y of every adventurer in slot order,
+ * then the records, each a type byte and its fields:
+ *      MOVE slot x y, ENGAGED slot other, ATTACK slot other damage, SKILL slot skill, POTION slot potion,
+ *      DEATH slot, TICK tick, FINAL count then alive x y of every slot, then component count, then name,
+ *      statistic count and the name and summary of every statistic of every component.
+ */
+
+import Skeleton.SimulationConfig;
+import Skeleton.Statistics;
+import Skeleton.StatisticsContainer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class BattleJournal {
+    static final int MAGIC = 0x44424A33; //"DBJ3", the first four bytes of every journal.
+    //Statistics measured with the clock, journaled but never the same twice, so a replay does not compare them.
+    static final Set<String> TIMED_STATISTICS =
+            Set.of("WorkTime", "PacingTime", "ServiceTime", "LockWait", "DeadlineLag", "ResponseTime");
+    static final byte MOVE = 1; //Record types.
+    static final byte ENGAGED = 2;
+    static final byte ATTACK = 3;
+    static final byte SKILL = 4;
+    static final byte POTION = 5;
+    static final byte DEATH = 6;
+    static final byte TICK = 7;
+    static final byte FINAL = 8;
+    static final int INDEX_TICKS = 64; //An index entry is written at every INDEX_TICKS-th tick.
+    static final int INDEX_BYTES = 64 * 1024; //And whenever this many bytes passed since the last entry.
+    //An index entry is an offset (long), the last tick started before it (int) and the battles started before it (int).
+    static final int INDEX_ENTRY_BYTES = 16;
+    static final int INDEX_TICK = 8; //The offset of the tick inside an index entry, after the record offset.
+    static final int INDEX_BATTLES = 12; //The offset of the battle count inside an index entry.
+    //The largest record or header field appended without a flush in between. Records and texts check for room
+    //on their own, so a header of any size never overflows the buffer.
+    private static final int MAX_RECORD = 1024;
+    private static final int MAX_TEXT = MAX_RECORD - 2; //The most bytes of a text kept, after its length.
+
+    private final Path path; //The journal file.
+    private final FileChannel channel; //The channel the journal is written with.
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(INDEX_BYTES); //Records waiting to be written.
+    private final ByteBuffer index = ByteBuffer.allocate(INDEX_BYTES); //Index entries waiting to be written.
+    private final FileChannel indexChannel; //The channel the index is written with.
+    private long flushed; //The bytes already written to the channel.
+    private long lastIndexed = -INDEX_BYTES; //The offset of the last index entry.
+    private int tick = -1; //The last tick appended, -1 before the first tick or outside the tick engine.
+    private int battles; //The number of battles appended so far.
+
+    /**
+     * Private constructor, journals are opened with create.
+     *
+     * @param path The journal file.
+     * @throws IOException
+     */
+    private BattleJournal(Path path) throws IOException {
+        this.path = path;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        indexChannel = FileChannel.open(indexPath(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Creates the journal and writes its header from the run's input and populated grid.
+     *
+     * @param path   The journal file, the index goes to the same name with ".idx" appended.
+     * @param grid   The grid of the run, with every adventurer placed.
+     * @param config The input of the run.
+     * @throws RuntimeException When the file cannot be written, this should fail the entire simulation.
+     */
+    static BattleJournal create(Path path, BattleGrid grid, SimulationConfig config) {
+        try {
+            BattleJournal journal = new BattleJournal(path);
+            journal.buffer.putInt(MAGIC).putLong(grid.getSeed()).putShort((short) grid.getX())
+                    .putShort((short) grid.getY());
+            //The journal's own path is left out, a replay writes its journal somewhere else.
+            List<String> keys = config.keys().stream().filter(key -> !key.equals("Journal")).toList();
+            journal.buffer.putInt(keys.size());
+            for (String key : keys) {
+                List<String> values = config.getList(key);
+                journal.putText(key);
+                journal.ensureRoom();
+                journal.buffer.putShort((short) values.size());
+                for (String value : values) {
+                    journal.putText(value);
+                }
+            }
+            List<Adventurer> adventurers = grid.getAdventurers();
+            journal.ensureRoom();
+            journal.buffer.putInt(adventurers.size());
+            for (Adventurer adventurer : adventurers) {
+                journal.putText(adventurer.getClass().getSimpleName());
+                journal.putText(adventurer.getName());
+                journal.ensureRoom();
+                journal.buffer.putInt(adventurer.getAttack()).putInt(adventurer.getHealth()).putInt(adventurer.getLuck())
+                        .putShort((short) adventurer.getX()).putShort((short) adventurer.getY());
+            }
+            return journal;
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Cannot write journal %s", path), e);
+        }
+    }
+
+    /**
+     * Method that gives the index file of a journal.
+     *
+     * @param path The journal file.
+     */
+    static Path indexPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".idx");
+    }
+
+    /**
+     * Appends a logged event, called by the battle log's writer thread only.
+     *
+     * @param event  The event.
+     * @param first  The first adventurer of the event.
+     * @param second The second adventurer of the event.
+     * @param a      The first value of the event.
+     * @param b      The second value of the event.
+     * @param text   The text of the event.
+     */
+    void append(BattleLog.Event event, Adventurer first, Adventurer second, int a, int b, String text) {
+        try {
+            ensureRoom();
+            if (event == BattleLog.Event.TICK ? a % INDEX_TICKS == 0 : position() - lastIndexed >= INDEX_BYTES) {
+                addIndexEntry();
+            }
+            switch (event) {
+                case MOVE -> buffer.put(MOVE).putInt(first.getGridSlot()).putShort((short) a).putShort((short) b);
+                case ENGAGED -> {
+                    buffer.put(ENGAGED).putInt(first.getGridSlot()).putInt(second.getGridSlot());
+                    battles++;
+                }
+                case ATTACK -> buffer.put(ATTACK).putInt(first.getGridSlot()).putInt(second.getGridSlot()).putInt(a);
+                case SKILL -> buffer.put(SKILL).putInt(first.getGridSlot()).put((byte) a);
+                case POTION -> buffer.put(POTION).putInt(first.getGridSlot()).putShort((short) a);
+                case DEATH -> buffer.put(DEATH).putInt(first.getGridSlot());
+                case TICK -> {
+                    buffer.put(TICK).putInt(a);
+                    tick = a;
+                }
+                default -> {
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Cannot write journal %s", path), e);
+        }
+    }
+
+    /**
+     * Appends the final record with every adventurer's end state and every statistic of the run, and closes the
+     * journal and its index. Called once the battle log is closed, so every event has been appended.
+     *
+     * @param grid  The grid of the run.
+     * @param stats The statistics container of the run.
+     * @throws RuntimeException When the file cannot be written, this should fail the entire simulation.
+     */
+    void close(BattleGrid grid, StatisticsContainer stats) {
+        try {
+            List<Adventurer> adventurers = grid.getAdventurers();
+            addIndexEntry();
+            ensureRoom();
+            buffer.put(FINAL).putInt(adventurers.size());
+            for (Adventurer adventurer : adventurers) {
+                ensureRoom();
+                buffer.put((byte) (adventurer.isAlive() ? 1 : 0))
+                        .putShort((short) adventurer.getX()).putShort((short) adventurer.getY());
+            }
+            ensureRoom();
+            buffer.putInt(stats.getComponentNames().size());
+            for (String component : stats.getComponentNames()) {
+                Statistics statistics = stats.getComponent(component);
+                putText(component);
+                ensureRoom();
+                buffer.putShort((short) statistics.getStatisticNames().size());
+                for (String name : statistics.getStatisticNames()) {
+                    putText(name);
+                    ensureRoom();
+                    buffer.putFloat(statistics.getStatistic(name).summarize());
+                }
+            }
+            flush();
+            flushIndex();
+            channel.close();
+            indexChannel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Cannot write journal %s", path), e);
+        }
+    }
+
+    /**
+     * Method that gives the offset in the file of the next record.
+     */
+    private long position() {
+        return flushed + buffer.position();
+    }
+
+    /**
+     * Adds an index entry for the next record.
+     *
+     * @throws IOException
+     */
+    private void addIndexEntry() throws IOException {
+        if (index.remaining() < INDEX_ENTRY_BYTES) {
+            flushIndex();
+        }
+        lastIndexed = position();
+        index.putLong(lastIndexed).putInt(tick).putInt(battles);
+    }
+
+    /**
+     * Writes the buffered records when the buffer cannot hold another record.
+     *
+     * @throws IOException
+     */
+    private void ensureRoom() throws IOException {
+        if (buffer.remaining() < MAX_RECORD) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffered records to the channel.
+     *
+     * @throws IOException
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            flushed += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes the buffered index entries to the index channel.
+     *
+     * @throws IOException
+     */
+    private void flushIndex() throws IOException {
+        index.flip();
+        while (index.hasRemaining()) {
+            indexChannel.write(index);
+        }
+        index.clear();
+    }
+
+    /**
+     * Writes a text as its UTF-8 length (short) and bytes, cut to MAX_TEXT bytes, flushing first when the buffer
+     * has no room for it.
+     *
+     * @param text The text.
+     * @throws IOException
+     */
+    private void putText(String text) throws IOException {
+        ensureRoom();
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_TEXT);
+        buffer.putShort((short) length).put(bytes, 0, length);
+    }
+
+    /**
+     * Reads a text written by putText.
+     *
+     * @param buffer The buffer.
+     */
+    private static String getText(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Memory-mapped reader for a journal, reads one record at a time into its fields.
+     */
+    static final class Reader {
+        final long seed; //The seed of the run.
+        final int width; //The width of the grid.
+        final int height; //The height of the grid.
+        final Map<String, List<String>> config = new LinkedHashMap<>(); //The input of the run, but Journal.
+        final String[] classes; //The class of every adventurer, by slot.
+        final String[] names; //The name of every adventurer, by slot.
+        final int[] attack; //The attack value every adventurer started with, by slot.
+        final int[] health; //The health value every adventurer started with, by slot.
+        final int[] luck; //The luck value every adventurer started with, by slot.
+        final int[] startX; //The x-coordinate every adventurer was placed at, by slot.
+        final int[] startY; //The y-coordinate every adventurer was placed at, by slot.
+        private final MappedByteBuffer journal; //The mapped journal.
+        private final ByteBuffer index; //The index entries.
+        private final int firstRecord; //The offset of the first record.
+
+        byte type; //The type of the current record.
+        int slot; //The slot of the current record's adventurer.
+        int other; //The slot of the other adventurer of an engagement or attack.
+        int value; //The damage of an attack, the skill of a unique skill, the potion id of a potion or the tick of a tick.
+        int x; //The x-coordinate of a move.
+        int y; //The y-coordinate of a move.
+        String text; //The potion name of a potion record, from the standard catalog.
+        int tick = -1; //The tick the current record belongs to.
+        //The engagements read so far minus one, the battle an engagement record starts, counted from 0.
+        //Battles of different adventurers can interleave, so later records need not belong to it.
+        int battle = -1;
+        boolean[] finalAlive; //Whether every adventurer was alive at the end, read from the final record.
+        int[] finalX; //The x-coordinate of every adventurer at the end, read from the final record.
+        int[] finalY; //The y-coordinate of every adventurer at the end, read from the final record.
+        //The summary of every statistic by component and name, read from the final record, null before it.
+        Map<String, Map<String, Float>> finalStatistics;
+
+        /**
+         * Constructor that maps the journal, reads its header and loads its index.
+         *
+         * @param path The journal file.
+         * @throws RuntimeException When the file cannot be read or is not a journal.
+         */
+        Reader(Path path) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                journal = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                index = ByteBuffer.wrap(Files.readAllBytes(indexPath(path)));
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Cannot read journal %s", path), e);
+            }
+            if (journal.getInt() != MAGIC) {
+                throw new RuntimeException(String.format("Not a journal: %s", path));
+            }
+            seed = journal.getLong();
+            width = journal.getShort();
+            height = journal.getShort();
+            int inputs = journal.getInt();
+            for (int i = 0; i < inputs; i++) {
+                String key = getText(journal);
+                String[] values = new String[journal.getShort()];
+                for (int v = 0; v < values.length; v++) {
+                    values[v] = getText(journal);
+                }
+                config.put(key, List.of(values));
+            }
+            int count = journal.getInt();
+            classes = new String[count];
+            names = new String[count];
+            attack = new int[count];
+            health = new int[count];
+            luck = new int[count];
+            startX = new int[count];
+            startY = new int[count];
+            for (int i = 0; i < count; i++) {
+                classes[i] = getText(journal);
+                names[i] = getText(journal);
+                attack[i] = journal.getInt();
+                health[i] = journal.getInt();
+                luck[i] = journal.getInt();
+                startX[i] = journal.getShort();
+                startY[i] = journal.getShort();
+            }
+            firstRecord = journal.position();
+        }
+
+        /**
+         * Reads the next record into the fields.
+         *
+         * @return false at the end of the journal.
+         */
+        boolean next() {
+            if (!journal.hasRemaining()) {
+                return false;
+            }
+            type = journal.get();
+            switch (type) {
+                case MOVE -> {
+                    slot = journal.getInt();
+                    x = journal.getShort();
+                    y = journal.getShort();
+                }
+                case ENGAGED -> {
+                    slot = journal.getInt();
+                    other = journal.getInt();
+                    battle++;
+                }
+                case ATTACK -> {
+                    slot = journal.getInt();
+                    other = journal.getInt();
+                    value = journal.getInt();
+                }
+                case SKILL -> {
+                    slot = journal.getInt();
+                    value = journal.get();
+                }
+                case POTION -> {
+                    slot = journal.getInt();
+                    value = journal.getShort();
+                    text = PotionCatalog.STANDARD.getName(value);
+                }
+                case DEATH -> slot = journal.getInt();
+                case TICK -> {
+                    value = journal.getInt();
+                    tick = value;
+                }
+                case FINAL -> readFinal();
+                default -> throw new RuntimeException(String.format("Corrupt journal record type %d", type));
+            }
+            return true;
+        }
+
+        /**
+         * Moves the reader so the next record read is the start of the given tick, or the end when there is none.
+         *
+         * @param target The tick.
+         */
+        void seekTick(int target) {
+            seekEntry(target - 1, INDEX_TICK);
+            while (true) {
+                int mark = journal.position();
+                int markTick = tick;
+                if (!next()) {
+                    return;
+                }
+                if (type == TICK && value >= target) {
+                    journal.position(mark);
+                    tick = markTick;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Moves the reader so the next record read is the engagement starting the given battle (counted from 0),
+         * or the end when there is none.
+         *
+         * @param target The battle.
+         */
+        void seekBattle(int target) {
+            seekEntry(target, INDEX_BATTLES);
+            while (true) {
+                int mark = journal.position();
+                int markTick = tick;
+                if (!next()) {
+                    return;
+                }
+                if (type == ENGAGED && battle >= target) {
+                    journal.position(mark);
+                    tick = markTick;
+                    battle--;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Moves the reader to the last index entry whose tick or battle count is not past the target.
+         * Both grow with the offset, so the entries are searched by halving.
+         *
+         * @param target The last tick, or the number of battles, that may have started before the entry.
+         * @param field  The offset of the field inside an entry, INDEX_TICK or INDEX_BATTLES.
+         */
+        private void seekEntry(int target, int field) {
+            int low = 0;
+            int high = index.capacity() / INDEX_ENTRY_BYTES - 1;
+            int found = -1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (index.getInt(middle * INDEX_ENTRY_BYTES + field) <= target) {
+                    found = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            if (found < 0) {
+                journal.position(firstRecord);
+                tick = -1;
+                battle = -1;
+                return;
+            }
+            int entry = found * INDEX_ENTRY_BYTES;
+            journal.position((int) index.getLong(entry));
+            tick = index.getInt(entry + INDEX_TICK);
+            battle = index.getInt(entry + INDEX_BATTLES) - 1;
+        }
+
+        /**
+         * Reads the final record into the final fields.
+         */
+        private void readFinal() {
+            int count = journal.getInt();
+            finalAlive = new boolean[count];
+            finalX = new int[count];
+            finalY = new int[count];
+            for (int i = 0; i < count; i++) {
+                finalAlive[i] = journal.get() == 1;
+                finalX[i] = journal.getShort();
+                finalY[i] = journal.getShort();
+            }
+            finalStatistics = new LinkedHashMap<>();
+            int components = journal.getInt();
+            for (int c = 0; c < components; c++) {
+                Map<String, Float> statistics = new LinkedHashMap<>();
+                finalStatistics.put(getText(journal), statistics);
+                int names = journal.getShort();
+                for (int s = 0; s < names; s++) {
+                    statistics.put(getText(journal), journal.getFloat());
+                }
+            }
+        }
+
+        /**
+         * Method that describes the current record as a line of text.
+         */
+        String describe() {
+            return switch (type) {
+                case MOVE -> names[slot] + " moved to " + x + ", " + y;
+                case ENGAGED -> "Battle " + battle + ": " + names[slot] + " is engaged in combat with " + names[other];
+                case ATTACK -> names[slot] + " deals " + value + " damage to " + names[other];
+                case SKILL -> names[slot] + " uses unique skill " + value;
+                case POTION -> names[slot] + " created potion " + text;
+                case DEATH -> names[slot] + " died";
+                case TICK -> "Tick " + value;
+                case FINAL -> "End of the run";
+                default -> "Unknown record " + type;
+            };
+        }
+    }
+}
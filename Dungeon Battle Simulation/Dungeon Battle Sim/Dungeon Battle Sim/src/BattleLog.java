@@ -0,0 +1,357 @@
+/**
+ * Name: Jonathan Boyle
+ * Date: October 18th 2026
+ * Description: The battle log, an asynchronous logger for everything the simulation prints while it runs.
+ * Adventurer threads claim a slot in a fixed ring of reusable event records with one atomic increment, fill in the
+ * raw values (no string is built) and publish it. A single background writer formats the records in order and
+ * prints them in batches, so the stdout lock is taken once per batch instead of once per line.
+ * The LogLevel input picks Off, Warn, Info or Debug (default); events above the level are dropped before anything
+ * is recorded, unless a BattleJournal is attached and the event is journaled, then the writer also appends it there.
+ * When formatting or journaling a record throws, the writer stops and keeps the failure, and the next log, flush or
+ * close rethrows it instead of waiting for slots that will never be freed.
+ */
+
+import Skeleton.SimulationInput;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+class BattleLog {
+    public static final int CAPACITY = 1 << 14; //The number of records in the ring, a power of two.
+    private static final int BATCH = 256; //The records the writer formats before it prints and frees their slots.
+
+    /**
+     * The log levels, each level also logs the ones before it.
+     */
+    enum Level {OFF, WARN, INFO, DEBUG}
+
+    /**
+     * The events the simulation logs, each with the level it is printed at (null for never) and whether it goes
+     * to an attached journal.
+     */
+    enum Event {
+        MOVE(Level.DEBUG, true), //first moved to (a, b), its c-th move.
+        ENGAGED(Level.INFO, true), //first is engaged in combat with second.
+        POTION(Level.INFO, true), //first created and drank potion a, named text.
+        WEAPON(Level.INFO, false), //first is attacking with the weapon in text.
+        ATTACK(Level.INFO, true), //first attacks second for a damage.
+        HEALTH(Level.INFO, false), //first's health is now a.
+        ROUND_END(Level.INFO, false), //A set of turns of a battle has ended.
+        WON(Level.INFO, false), //first won the battle against second.
+        DRAW(Level.INFO, false), //Both fighters were defeated.
+        SKILL(Level.INFO, true), //first used unique skill a, described by text.
+        NOTE(Level.INFO, false), //The battle note in text, like a mood.
+        DEATH(null, true), //first died.
+        TICK(null, true), //Tick a of the tick engine started.
+        INVALID_POSITION(Level.WARN, false); //first could not be placed, text is the reason.
+
+        private final Level level; //The level the event is printed at, null when it is never printed.
+        private final boolean journaled; //Whether the event is appended to an attached journal.
+
+        Event(Level level, boolean journaled) {
+            this.level = level;
+            this.journaled = journaled;
+        }
+    }
+
+    private final Level level; //The most detailed level logged.
+    //The reusable event records, allocated by the first event, so a log nothing is written to costs none.
+    //Written before writer, which every producer reads first, and before the writer starts, so both see it.
+    private Record[] ring;
+    private final int mask = CAPACITY - 1; //Maps a sequence to its record.
+    private final AtomicLong claimed = new AtomicLong(); //The next sequence a producer will claim.
+    private volatile long consumed; //The next sequence the writer will print, every record before it is free.
+    private final ReentrantLock writerLock = new ReentrantLock(); //Lock for starting and stopping the writer.
+    private volatile Thread writer; //The background writer, started by the first event.
+    private volatile boolean closing; //Set by close, the writer exits once it has printed every claimed record.
+    private volatile BattleJournal journal; //The journal journaled events are appended to, null when none.
+    private volatile Throwable failure; //What stopped the writer, null while it works.
+
+    /**
+     * Constructor for the log, reads the LogLevel input (Debug when missing).
+     *
+     * @param input The simulation input object with the LogLevel value.
+     * @throws RuntimeException When the level is unknown, this should fail the entire simulation.
+     */
+    BattleLog(SimulationInput input) {
+        String levelName = input.getStringInput("LogLevel", "Debug");
+        switch (levelName) {
+            case "Off" -> level = Level.OFF;
+            case "Warn" -> level = Level.WARN;
+            case "Info" -> level = Level.INFO;
+            case "Debug" -> level = Level.DEBUG;
+            default -> throw new RuntimeException(String.format("Unknown LogLevel: %s", levelName));
+        }
+    }
+
+    /**
+     * Method that attaches a journal, attach it before the run starts logging.
+     *
+     * @param journal The journal journaled events are appended to.
+     */
+    void attachJournal(BattleJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Method that checks whether an event is logged, callers with work to do before logging can skip it.
+     *
+     * @param event The event.
+     */
+    boolean isEnabled(Event event) {
+        return isPrinted(event) || (event.journaled && journal != null);
+    }
+
+    /**
+     * Method that checks whether an event is printed at the log level.
+     *
+     * @param event The event.
+     */
+    private boolean isPrinted(Event event) {
+        return event.level != null && event.level.ordinal() <= level.ordinal();
+    }
+
+    /**
+     * Logs an event about one adventurer.
+     *
+     * @param event The event.
+     * @param first The adventurer the event is about.
+     * @param a     The first value of the event.
+     */
+    void log(Event event, Adventurer first, int a) {
+        log(event, first, null, a, 0, 0, null);
+    }
+
+    /**
+     * Logs an event with a text.
+     *
+     * @param event The event.
+     * @param first The adventurer the event is about, or null.
+     * @param text  The text of the event.
+     */
+    void log(Event event, Adventurer first, String text) {
+        log(event, first, null, 0, 0, 0, text);
+    }
+
+    /**
+     * Logs an event. Only the raw values are recorded, the writer formats them later.
+     * Blocks while the ring is full.
+     *
+     * @param event  The event.
+     * @param first  The first adventurer of the event, or null.
+     * @param second The second adventurer of the event, or null.
+     * @param a      The first value of the event.
+     * @param b      The second value of the event.
+     * @param c      The third value of the event.
+     * @param text   The text of the event, or null.
+     * @throws RuntimeException When the writer failed, with its failure as the cause.
+     */
+    void log(Event event, Adventurer first, Adventurer second, int a, int b, int c, String text) {
+        if (!isEnabled(event)) {
+            return;
+        }
+        checkWriter();
+        if (writer == null) {
+            startWriter();
+        }
+        long sequence = claimed.getAndIncrement();
+        //Wait for the writer to free the record a full lap ago.
+        for (int spins = 0; sequence - consumed >= CAPACITY; spins++) {
+            checkWriter();
+            if (spins < 64) {
+                Thread.yield();
+            } else {
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(this, 50_000);
+            }
+        }
+        Record record = ring[(int) sequence & mask];
+        record.event = event;
+        record.first = first;
+        record.second = second;
+        record.a = a;
+        record.b = b;
+        record.c = c;
+        record.text = text;
+        record.sequence = sequence; //The volatile write publishes the fields above to the writer.
+    }
+
+    /**
+     * Blocks until every event logged before the call has been printed.
+     *
+     * @throws RuntimeException When the writer failed, with its failure as the cause.
+     */
+    void flush() {
+        long target = claimed.get();
+        while (consumed < target && writer != null) {
+            checkWriter();
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, 100_000);
+        }
+        System.out.flush();
+    }
+
+    /**
+     * Prints every logged event and stops the writer, called at the end of a run once nothing logs anymore.
+     * A later event starts a new writer.
+     *
+     * @throws RuntimeException When the writer failed, with its failure as the cause.
+     */
+    void close() {
+        writerLock.lock();
+        try {
+            Thread current = writer;
+            if (current == null) {
+                return;
+            }
+            closing = true;
+            LockSupport.unpark(current);
+            try {
+                current.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+            closing = false;
+        } finally {
+            writerLock.unlock();
+        }
+        System.out.flush();
+        checkWriter();
+    }
+
+    /**
+     * Rethrows the failure that stopped the writer, so callers fail instead of waiting on it forever.
+     *
+     * @throws RuntimeException When the writer failed, with its failure as the cause.
+     */
+    private void checkWriter() {
+        Throwable failure = this.failure;
+        if (failure != null) {
+            throw new RuntimeException(String.format("The battle log writer failed: %s", failure), failure);
+        }
+    }
+
+    /**
+     * Starts the background writer if no other thread has, allocating the ring the first time.
+     */
+    private void startWriter() {
+        writerLock.lock();
+        try {
+            if (ring == null) {
+                Record[] records = new Record[CAPACITY];
+                for (int i = 0; i < CAPACITY; i++) {
+                    records[i] = new Record();
+                }
+                ring = records;
+            }
+            if (writer == null) {
+                writer = Thread.ofPlatform().daemon().name("battle-log").start(this::drain);
+            }
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    /**
+     * The writer loop, formats the published records in sequence order and prints them a batch at a time.
+     * A record that fails to format or journal stops the loop and is kept as the failure, after printing the
+     * records before it.
+     */
+    private void drain() {
+        StringBuilder out = new StringBuilder(BATCH * 64);
+        long next = consumed;
+        while (true) {
+            Record record = ring[(int) next & mask];
+            if (record.sequence == next) {
+                try {
+                    if (isPrinted(record.event)) {
+                        format(record, out);
+                    }
+                    BattleJournal journal = this.journal;
+                    if (journal != null && record.event.journaled) {
+                        journal.append(record.event, record.first, record.second, record.a, record.b, record.text);
+                    }
+                } catch (Throwable e) {
+                    print(out);
+                    failure = e;
+                    return;
+                }
+                record.first = null;
+                record.second = null;
+                record.text = null;
+                next++;
+                if (next % BATCH == 0) {
+                    print(out);
+                    consumed = next;
+                }
+                continue;
+            }
+            //Nothing more is published, print what is batched and free the slots.
+            print(out);
+            consumed = next;
+            if (closing && claimed.get() == next) {
+                return;
+            }
+            LockSupport.parkNanos(this, 200_000);
+        }
+    }
+
+    /**
+     * Prints the batched lines with one call and empties the batch.
+     *
+     * @param out The batched lines.
+     */
+    private static void print(StringBuilder out) {
+        if (out.length() > 0) {
+            System.out.print(out);
+            out.setLength(0);
+        }
+    }
+
+    /**
+     * Formats one record into the lines the simulation has always printed for it.
+     *
+     * @param record The record.
+     * @param out    The batch the lines are appended to.
+     */
+    private static void format(Record record, StringBuilder out) {
+        switch (record.event) {
+            case MOVE -> out.append(record.first.getName()).append(" coordinates are ").append(record.a)
+                    .append(", ").append(record.b).append(" after move ").append(record.c).append('\n');
+            case ENGAGED -> out.append("    >").append(record.first.getName()).append(" is engaged in combat with ")
+                    .append(record.second.getName()).append('\n');
+            case POTION -> out.append("    >Potion created: ").append(record.text).append('\n');
+            case WEAPON -> out.append("    >").append(record.first.getName()).append(" is ").append(record.text)
+                    .append('\n');
+            case ATTACK -> out.append("    >").append(record.first.getName()).append(" attacks: deals ")
+                    .append(record.a).append(" damage.").append('\n');
+            case HEALTH -> out.append("    >").append(record.first.getName()).append(" health is now ")
+                    .append(record.a).append('\n');
+            case ROUND_END -> out.append("-------------------------------").append('\n');
+            case WON -> out.append("    >").append(record.first.getName()).append(" won the battle").append('\n')
+                    .append("    >").append(record.second.getName()).append(" is defeated").append('\n');
+            case DRAW -> out.append("Both fighters have been defeated in a Draw!").append('\n');
+            case SKILL, NOTE -> out.append("    >").append(record.text).append('\n');
+            case INVALID_POSITION -> out.append("Invalid position for adventurer ").append(record.first.getName())
+                    .append(record.text).append('\n');
+            case DEATH, TICK -> {
+            }
+        }
+    }
+
+    /**
+     * One reusable event record of the ring.
+     */
+    private static final class Record {
+        volatile long sequence = -1; //The sequence the record was last published for.
+        Event event; //The event.
+        Adventurer first; //The first adventurer of the event.
+        Adventurer second; //The second adventurer of the event.
+        int a; //The first value of the event.
+        int b; //The second value of the event.
+        int c; //The third value of the event.
+        String text; //The text of the event.
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Name: Jonathan Boyle
+ * Date: October 18th 2026
+ * Description: Standalone probe that finds how many adventurers a runner of the threaded engine can sustain.
+ * It runs the threaded engine at growing populations and stops once the actions the units managed fall
+ * behind their ActionsPerSecond schedule by more than the drift budget. The p99 of the per-class DeadlineLag and
+ * ServiceTime histograms shows whether the budget broke because actions ran long or because they started late.
+ * The peak live thread count of each run shows the cost of the runner: Virtual and Scheduled stay flat.
+ * Arguments: [ActionsPerSecond, default 1] [seconds per run, default 5] [drift budget, default 0.05]
+ * [Runner, default Virtual].
+ */
+
+import Skeleton.HistogramStatistic;
+import Skeleton.SimulationInput;
+import Skeleton.Statistics;
+import Skeleton.StatisticsContainer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+public class CapacityProbe {
+    private static final int[] ADVENTURERS_PER_CLASS = {1, 10, 100, 1_000, 10_000, 25_000}; //Populations probed, 4 classes each.
+    private static final String[] CLASSES = {"Knight", "Mage", "Rogue", "Healer"}; //The classes whose histograms are merged.
+
+    public static void main(String[] args) {
+        double actionsPerSecond = args.length > 0 ? Double.parseDouble(args[0]) : 1;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        double budget = args.length > 2 ? Double.parseDouble(args[2]) : 0.05;
+        String runner = args.length > 3 ? args[3] : "Virtual";
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        System.out.printf("%s runner capacity at %s actions/s, %d s runs, %.1f%% drift budget%n",
+                runner, actionsPerSecond, seconds, budget * 100);
+        System.out.printf("%12s %16s %12s %14s %14s %14s%n",
+                "adventurers", "actions/s", "drift", "p99 lag ms", "p99 work ms", "peak threads");
+        int sustained = 0;
+        for (int perClass : ADVENTURERS_PER_CLASS) {
+            SimulationInput input = new SimulationInput();
+            input.addInput("Time", List.of(String.valueOf(seconds)));
+            input.addInput("ActionsPerSecond", List.of(String.valueOf(actionsPerSecond)));
+            input.addInput("AdventurersPerClass", List.of(String.valueOf(perClass)));
+            input.addInput("Runner", List.of(runner));
+            //The battle log is off, at these populations printing it would be all the probe measured.
+            input.addInput("LogLevel", List.of("Off"));
+            //Keep the grid about a quarter full whatever the population.
+            int side = (int) Math.ceil(Math.sqrt(perClass * 16.0));
+            side = Math.max(BattleGrid.MIN_SIZE, Math.min(BattleGrid.MAX_SIZE, side));
+            input.addInput("GridWidth", List.of(String.valueOf(side)));
+            input.addInput("GridHeight", List.of(String.valueOf(side)));
+
+            BattleGrid grid = new BattleGrid(input);
+            //The pause between battle rounds would count as drift for the fighters, the probe measures the engine.
+            grid.setRoundDelay(0);
+            threads.resetPeakThreadCount();
+            long start = System.nanoTime();
+            StatisticsContainer stats = StatisticsContainer.newInstance(input);
+            Matrix.run(input, grid, stats);
+            double elapsed = (System.nanoTime() - start) / 1e9;
+
+            long performed = 0;
+            for (Adventurer adventurer : grid.getAdventurers()) {
+                performed += adventurer.getActionsPerformed();
+            }
+            long population = grid.getAdventurers().size();
+            double scheduled = (double) population * seconds * actionsPerSecond;
+            double drift = Math.max(0, 1 - performed / scheduled);
+            HistogramStatistic lag = merged(stats, "DeadlineLag");
+            HistogramStatistic work = merged(stats, "ServiceTime");
+            System.out.printf("%12d %16.0f %11.2f%% %14.3f %14.3f %14d%n", population, performed / elapsed, drift * 100,
+                    lag.getPercentile(99) / 1e6, work.getPercentile(99) / 1e6, threads.getPeakThreadCount());
+            if (drift > budget) {
+                break;
+            }
+            sustained = (int) population;
+        }
+        System.out.printf("Sustained %d adventurers at %s actions/s within the drift budget%n", sustained, actionsPerSecond);
+    }
+
+    /**
+     * Method that merges a latency histogram of every adventurer class into one.
+     *
+     * @param stats The statistics container of the run.
+     * @param name  The name of the histogram.
+     */
+    private static HistogramStatistic merged(StatisticsContainer stats, String name) {
+        HistogramStatistic all = new HistogramStatistic(name);
+        for (String className : CLASSES) {
+            Statistics classStats = stats.getComponent(className + " units");
+            if (classStats != null) {
+                all.merge((HistogramStatistic) classStats.getStatistic(name));
+            }
+        }
+        return all;
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Name: Jonathan Boyle
+ * Date: October 18th 2026
+ * Description: Standalone benchmark for the combat path, run it with its own main method.
+ * Fights many Knight against Mage battles on one thread with the log off and no pacing, and reads the bytes that
+ * thread allocated from the ThreadMXBean, so any garbage the battles make shows up as bytes per battle and per attack.
+ * The adventurers are built before each timed round, only the battles are measured.
+ * Arguments: [battles per round, default 20000] [rounds, default 5].
+ */
+
+import Skeleton.SimulationInput;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+public class CombatBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int battles = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        System.out.println("Combat allocation (" + battles + " battles per round, the first rounds warm up the JIT)");
+        System.out.printf("%6s %16s %16s %14s%n", "round", "bytes/battle", "bytes/attack", "battles/s");
+        for (int round = 1; round <= rounds; round++) {
+            BattleGrid grid = pairedGrid(battles, round);
+            List<Adventurer> adventurers = grid.getAdventurers();
+            long attacksBefore = attacks(adventurers);
+
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < battles; i++) {
+                grid.simulateBattle(adventurers.get(2 * i), adventurers.get(2 * i + 1));
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+            long attacks = attacks(adventurers) - attacksBefore;
+            System.out.printf("%6d %16.1f %16.1f %14.0f%n", round, allocated / (double) battles,
+                    allocated / (double) Math.max(1, attacks), battles / (elapsed / 1e9));
+        }
+    }
+
+    /**
+     * Builds a grid with the given number of Knight and Mage pairs, each pair alone on its own tile of a
+     * 256x256 grid so it fights a full battle, with the log off, no pacing and no pause between rounds.
+     *
+     * @param pairs The number of pairs.
+     * @param seed  The seed of the grid.
+     */
+    private static BattleGrid pairedGrid(int pairs, int seed) {
+        SimulationInput input = new SimulationInput();
+        input.addInput("GridWidth", List.of("256"));
+        input.addInput("GridHeight", List.of("256"));
+        input.addInput("LogLevel", List.of("Off"));
+        input.addInput("Pacing", List.of("None"));
+        input.addInput("Seed", List.of(String.valueOf(seed)));
+        BattleGrid grid = new BattleGrid(input);
+        grid.setRoundDelay(0);
+        for (int i = 0; i < pairs; i++) {
+            int x = i % grid.getX();
+            int y = i / grid.getX() % grid.getY();
+            grid.addAdventurer(new Knight("Knight " + i, 15, 100, 10, input), x, y);
+            grid.addAdventurer(new Mage("Mage " + i, 25, 60, 10, input), x, y);
+        }
+        return grid;
+    }
+
+    /**
+     * Counts the attacks performed by every adventurer so far.
+     *
+     * @param adventurers The adventurers.
+     */
+    private static long attacks(List<Adventurer> adventurers) {
+        long attacks = 0;
+        for (Adventurer adventurer : adventurers) {
+            attacks += (long) adventurer.getStats().getStatistic("AttacksPerformed").summarize();
+        }
+        return attacks;
+    }
+}
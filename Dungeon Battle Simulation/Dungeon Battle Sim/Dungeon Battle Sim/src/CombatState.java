@@ -0,0 +1,68 @@
+/**
+ * Name: Jonathan Boyle
+ * Date: October 18th 2026
+ * Description: The reusable state of a battle, acquired when a battle begins and released when it ends.
+ * A battle only needs two small arrays for the battle-local copies of the fighters' specs and a potion builder,
+ * so instead of allocating them for every battle they are reused and reset when a battle begins.
+ * A platform thread fights one battle at a time, so it keeps one state of its own. A virtual thread does not:
+ * with tens of thousands of them a state each would be tens of thousands of states for the few battles that
+ * run at once, and a state per carrier thread would be shared by a battle that parks between rounds. Virtual
+ * threads take a state from a small shared pool instead, which holds at most POOL_SIZE idle states.
+ */
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class CombatState {
+    private static final ThreadLocal<CombatState> CURRENT = ThreadLocal.withInitial(CombatState::new); //Per platform thread.
+    private static final int POOL_SIZE = 64; //The most idle states kept for virtual threads.
+    private static final ConcurrentLinkedQueue<CombatState> POOL = new ConcurrentLinkedQueue<>(); //Idle states.
+    private static final AtomicInteger POOLED = new AtomicInteger(); //The number of states in the pool.
+
+    final int[] firstSpecs = new int[3]; //Battle-local atk, hp and lck of the adventurer that started the battle.
+    final int[] secondSpecs = new int[3]; //Battle-local atk, hp and lck of the other adventurer.
+    final PotionBuilder potionBuilder = new PotionBuilder(); //The potion builder of the battle.
+
+    /**
+     * Method that takes a combat state for a battle on the current thread, release it when the battle ends.
+     */
+    static CombatState acquire() {
+        if (!Thread.currentThread().isVirtual()) {
+            return CURRENT.get();
+        }
+        CombatState state = POOL.poll();
+        if (state == null) {
+            return new CombatState();
+        }
+        POOLED.decrementAndGet();
+        return state;
+    }
+
+    /**
+     * Method that gives back a state from acquire, a virtual thread's state goes back to the pool unless it is full.
+     *
+     * @param state The state of the battle that ended.
+     */
+    static void release(CombatState state) {
+        if (!Thread.currentThread().isVirtual()) {
+            return;
+        }
+        if (POOLED.incrementAndGet() <= POOL_SIZE) {
+            POOL.offer(state);
+        } else {
+            POOLED.decrementAndGet();
+        }
+    }
+
+    /**
+     * Method that resets the state for a new battle, copies both fighters' specs.
+     * Skills like Black Magic and Gamble change only these copies, never the adventurers themselves.
+     *
+     * @param first  The adventurer that started the battle.
+     * @param second The other adventurer.
+     */
+    void begin(Adventurer first, Adventurer second) {
+        first.copySpecs(firstSpecs);
+        second.copySpecs(secondSpecs);
+    }
+}
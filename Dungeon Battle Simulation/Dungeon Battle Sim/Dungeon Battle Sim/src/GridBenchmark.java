@@ -0,0 +1,240 @@
+/**
+ * Name: Jonathan Boyle
+ * Date: October 18th 2026
+ * Description: Standalone benchmark for the BattleGrid hot paths, run it with its own main method.
+ * Compares the occupancy index against the original full list scan for engagement detection,
+ * and measures how movement throughput grows with threads under the region-striped locks and lock-free movement.
+ * Also compares a whole-population pass through the Adventurer views against the same pass over the AdventurerStore.
+ */
+
+import Skeleton.SimulationInput;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class GridBenchmark {
+    private static final int[] POPULATIONS = {10, 1_000, 100_000}; //Adventurer counts each benchmark is run at.
+    private static final int LOOKUPS = 20_000; //Engagement lookups timed per population.
+    private static final int MOVERS = 1_000; //Adventurers moved in the striped movement benchmark.
+    private static final long MOVE_RUN_MS = 1_000; //How long each thread count of the movement benchmark runs.
+    private static final int[] MOVER_THREADS = {1, 2, 4, 8, 16, 64}; //Thread counts of the movement benchmark.
+    private static final int SCANS = 200; //Whole-population passes timed per population in the scan benchmark.
+
+    public static void main(String[] args) throws InterruptedException {
+        benchmarkEngagement();
+        benchmarkPopulationScan();
+        benchmarkMovement("Striped");
+        benchmarkMovement("LockFree");
+    }
+
+    /**
+     * Times engagement lookups through the occupancy index and through a scan of the adventurer list.
+     * Every adventurer is a Knight, so no lookup finds an enemy and both approaches do their worst case.
+     *
+     * @throws InterruptedException
+     */
+    private static void benchmarkEngagement() throws InterruptedException {
+        System.out.println("Engagement lookup (ns per lookup, no enemy on the tile)");
+        System.out.printf("%10s %14s %14s%n", "units", "list scan", "indexed");
+        for (int population : POPULATIONS) {
+            BattleGrid grid = populatedGrid(population, "Striped");
+            List<Adventurer> adventurers = grid.getAdventurers();
+
+            //Warm up both paths before timing them.
+            long sink = 0;
+            for (int i = 0; i < LOOKUPS; i++) {
+                Adventurer adventurer = adventurers.get(i % population);
+                sink += scanForEnemy(adventurers, adventurer) == null ? 1 : 0;
+                sink += grid.isAdventurerEngaged(adventurer) == null ? 1 : 0;
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                sink += scanForEnemy(adventurers, adventurers.get(i % population)) == null ? 1 : 0;
+            }
+            long scanNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                sink += grid.isAdventurerEngaged(adventurers.get(i % population)) == null ? 1 : 0;
+            }
+            long indexedNanos = System.nanoTime() - start;
+
+            System.out.printf("%10d %14.1f %14.1f%n", population,
+                    scanNanos / (double) LOOKUPS, indexedNanos / (double) LOOKUPS);
+            if (sink == 42) {
+                System.out.println(); //Keeps the lookups from being optimized away.
+            }
+        }
+    }
+
+    /**
+     * Times a tick-loop style pass over every adventurer (is it alive, which class, where is it, how healthy)
+     * once through the Adventurer objects and once straight over the store's parallel arrays.
+     */
+    private static void benchmarkPopulationScan() {
+        System.out.println();
+        System.out.println("Population scan (ns per unit, alive, class, position and health of every unit)");
+        System.out.printf("%10s %14s %14s%n", "units", "views", "store");
+        for (int population : POPULATIONS) {
+            BattleGrid grid = populatedGrid(population, "Striped");
+            List<Adventurer> adventurers = grid.getAdventurers();
+            AdventurerStore store = grid.getStore();
+
+            //Warm up both paths before timing them.
+            long sink = 0;
+            for (int i = 0; i < SCANS; i++) {
+                sink += scanViews(adventurers) + scanStore(store, population);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < SCANS; i++) {
+                sink += scanViews(adventurers);
+            }
+            long viewNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < SCANS; i++) {
+                sink += scanStore(store, population);
+            }
+            long storeNanos = System.nanoTime() - start;
+
+            double units = (double) SCANS * population;
+            System.out.printf("%10d %14.2f %14.2f%n", population, viewNanos / units, storeNanos / units);
+            if (sink == 42) {
+                System.out.println(); //Keeps the scans from being optimized away.
+            }
+        }
+    }
+
+    /**
+     * One pass over the adventurers through their objects.
+     *
+     * @param adventurers The adventurers on the grid.
+     */
+    private static long scanViews(List<Adventurer> adventurers) {
+        long sum = 0;
+        for (Adventurer adventurer : adventurers) {
+            if (adventurer.isAlive() && adventurer.getClassId() == 1) {
+                sum += adventurer.getX() + adventurer.getY() + adventurer.getHealth();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * The same pass over the store, by unit id.
+     *
+     * @param store      The store of the grid.
+     * @param population The number of units in the store.
+     */
+    private static long scanStore(AdventurerStore store, int population) {
+        long sum = 0;
+        for (int id = 0; id < population; id++) {
+            if (store.isAlive(id) && store.getClassId(id) == 1) {
+                long position = store.getPosition(id);
+                sum += Adventurer.unpackX(position) + Adventurer.unpackY(position) + store.getHealth(id);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Moves 1k adventurers around a 64x64 grid with each of the MOVER_THREADS thread counts, each thread
+     * owning an equal share of the adventurers, and prints the moves per second at each thread count.
+     *
+     * @param movementMode The MovementMode of the grid, Striped or LockFree.
+     * @throws InterruptedException
+     */
+    private static void benchmarkMovement(String movementMode) throws InterruptedException {
+        System.out.println();
+        System.out.println(movementMode + " movement, 64x64 grid, " + MOVERS + " units, "
+                + Runtime.getRuntime().availableProcessors() + " cores (moves per second)");
+        System.out.printf("%10s %14s %10s%n", "threads", "moves/s", "speedup");
+        BattleGrid grid = populatedGrid(MOVERS, movementMode);
+        List<Adventurer> adventurers = grid.getAdventurers();
+        double baseline = 0;
+        for (int threadCount : MOVER_THREADS) {
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicLong moves = new AtomicLong();
+            Thread[] threads = new Thread[threadCount];
+            for (int t = 0; t < threadCount; t++) {
+                int first = t * MOVERS / threadCount;
+                int last = (t + 1) * MOVERS / threadCount;
+                threads[t] = new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long done = 0;
+                    try {
+                        while (running.get()) {
+                            Adventurer adventurer = adventurers.get(first + random.nextInt(last - first));
+                            grid.moveAdventurer(adventurer, random.nextInt(4) + 1);
+                            grid.isAdventurerEngaged(adventurer);
+                            done++;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    moves.addAndGet(done);
+                });
+            }
+            long start = System.nanoTime();
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            Thread.sleep(MOVE_RUN_MS);
+            running.set(false);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            double movesPerSecond = moves.get() / ((System.nanoTime() - start) / 1e9);
+            if (threadCount == 1) {
+                baseline = movesPerSecond;
+            }
+            System.out.printf("%10d %14.0f %9.2fx%n", threadCount, movesPerSecond, movesPerSecond / baseline);
+        }
+    }
+
+    /**
+     * The engagement check as it was before the occupancy index, a scan of every adventurer on the grid.
+     *
+     * @param adventurers The adventurers on the grid.
+     * @param adventurer  The adventurer looking for an enemy on its tile.
+     */
+    private static Adventurer scanForEnemy(List<Adventurer> adventurers, Adventurer adventurer) {
+        int x = adventurer.getX();
+        int y = adventurer.getY();
+        for (Adventurer other : adventurers) {
+            if (other != adventurer && other.getX() == x && other.getY() == y && !other.getClass().equals(adventurer.getClass())) {
+                return other;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Builds a throwaway 64x64 grid with the given number of Knights placed at random tiles,
+     * on a lock-free grid a taken tile is retried since tiles are not shared.
+     *
+     * @param population   The number of adventurers to place.
+     * @param movementMode The MovementMode of the grid, Striped or LockFree.
+     */
+    private static BattleGrid populatedGrid(int population, String movementMode) {
+        SimulationInput input = new SimulationInput();
+        input.addInput("GridWidth", List.of("64"));
+        input.addInput("GridHeight", List.of("64"));
+        input.addInput("MovementMode", List.of(movementMode));
+        input.addInput("LogLevel", List.of("Off"));
+        BattleGrid grid = new BattleGrid(input);
+        Random random = new Random(population);
+        for (int i = 0; i < population; i++) {
+            Knight knight = new Knight("Knight " + i, 15, 100, 10, input);
+            while (!grid.addAdventurer(knight, random.nextInt(grid.getX()), random.nextInt(grid.getY()))) {
+                //Try another tile.
+            }
+        }
+        return grid;
+    }
+}
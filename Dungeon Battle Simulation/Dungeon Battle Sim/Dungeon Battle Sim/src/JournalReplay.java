@@ -0,0 +1,354 @@
+/**
+ * Name: Jonathan Boyle
+ * Date: October 18th 2026
+ * Description: Standalone viewer and replay for a BattleJournal, run it with its own main method.
+ * With only a journal it runs the journaled Tick engine run again from the input and seed in its header and checks
+ * the adventurers' specs, every record, the survivors and positions and every statistic not measured with the clock
+ * against the ones the run recorded, printing the first record where the two runs diverge. With TickPhases set to
+ * Parallel the events of a phase are logged in whatever order its chunks ran, so the records of each tick are
+ * compared as a set instead of in order.
+ * Battles of different adventurers can interleave, so a battle is printed as the records of its two fighters from
+ * its engagement until either fighter's next engagement or the next tick.
+ * With "tick N" or "battle K" it jumps to that tick or battle through the index and prints its records.
+ * Arguments: journal [tick N | battle K].
+ */
+
+import Skeleton.SimulationInput;
+import Skeleton.Statistics;
+import Skeleton.StatisticsContainer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class JournalReplay {
+    private static final float STATISTIC_TOLERANCE = 1e-5f; //The relative difference two statistic summaries may have.
+
+    public static void main(String[] args) {
+        BattleJournal.Reader reader = new BattleJournal.Reader(Path.of(args[0]));
+        if (args.length > 2 && args[1].equals("tick")) {
+            printTick(reader, Integer.parseInt(args[2]));
+        } else if (args.length > 2 && args[1].equals("battle")) {
+            printBattle(reader, Integer.parseInt(args[2]));
+        } else {
+            System.exit(replay(reader) ? 0 : 1);
+        }
+    }
+
+    /**
+     * Prints every record of a tick.
+     *
+     * @param reader The journal reader.
+     * @param tick   The tick.
+     */
+    private static void printTick(BattleJournal.Reader reader, int tick) {
+        reader.seekTick(tick);
+        while (reader.next() && reader.tick == tick && reader.type != BattleJournal.FINAL) {
+            System.out.println(reader.describe());
+        }
+    }
+
+    /**
+     * Prints every record of a battle: its engagement, then the potions, attacks, skills and deaths of its two
+     * fighters until either of them is engaged again or the tick ends. Records of other battles running at the
+     * same time are skipped, and so are moves.
+     *
+     * @param reader The journal reader.
+     * @param battle The battle, counted from 0.
+     */
+    private static void printBattle(BattleJournal.Reader reader, int battle) {
+        reader.seekBattle(battle);
+        if (!reader.next() || reader.type != BattleJournal.ENGAGED) {
+            return;
+        }
+        System.out.println(reader.describe());
+        int first = reader.slot;
+        int second = reader.other;
+        while (reader.next() && reader.type != BattleJournal.TICK && reader.type != BattleJournal.FINAL) {
+            boolean fighter = reader.slot == first || reader.slot == second;
+            boolean engagesFighter = reader.type == BattleJournal.ENGAGED
+                    && (fighter || reader.other == first || reader.other == second);
+            if (engagesFighter) {
+                return;
+            }
+            if (fighter && reader.type != BattleJournal.MOVE) {
+                System.out.println(reader.describe());
+            }
+        }
+    }
+
+    /**
+     * Runs the journaled tick-engine run again from its input and seed with a journal of its own, then checks the
+     * adventurers' specs, every record, the end state and every statistic that is not measured with the clock
+     * against the ones the run recorded.
+     *
+     * @param reader The journal reader, at the start of the records.
+     * @return Whether the replay matched the run.
+     */
+    private static boolean replay(BattleJournal.Reader reader) {
+        if (!reader.config.getOrDefault("Engine", List.of("Threaded")).equals(List.of("Tick"))) {
+            System.out.println("Only runs of the Tick engine can be replayed, the threads of other engines interleave"
+                    + " differently every run");
+            return false;
+        }
+        Path replayPath;
+        try {
+            replayPath = Files.createTempFile("replay", ".bin");
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot create the replay journal", e);
+        }
+        SimulationInput input = new SimulationInput();
+        reader.config.forEach((key, values) -> {
+            if (!key.equals("Seed") && !key.equals("LogLevel")) {
+                input.addInput(key, values);
+            }
+        });
+        input.addInput("Seed", List.of(String.valueOf(reader.seed)));
+        input.addInput("LogLevel", List.of("Off"));
+        input.addInput("Journal", List.of(replayPath.toString()));
+        StatisticsContainer stats = StatisticsContainer.newInstance(input);
+        BattleJournal.Reader replayed;
+        try {
+            Matrix.run(input, new BattleGrid(input), stats);
+            replayed = new BattleJournal.Reader(replayPath);
+        } finally {
+            try {
+                Files.deleteIfExists(replayPath);
+                Files.deleteIfExists(Path.of(replayPath + ".idx"));
+            } catch (IOException e) {
+                System.out.printf("Cannot delete the replay journal %s%n", replayPath);
+            }
+        }
+
+        boolean ordered = !reader.config.getOrDefault("TickPhases", List.of("Sequential")).equals(List.of("Parallel"));
+        int mismatches = compareAdventurers(reader, replayed);
+        long records = 0;
+        while (mismatches == 0) {
+            int tick = reader.tick;
+            List<String> recordedKeys = new ArrayList<>();
+            List<String> recordedLines = new ArrayList<>();
+            List<String> replayedKeys = new ArrayList<>();
+            List<String> replayedLines = new ArrayList<>();
+            readTick(reader, recordedKeys, recordedLines);
+            readTick(replayed, replayedKeys, replayedLines);
+            if (recordedKeys.isEmpty() && replayedKeys.isEmpty()) {
+                break;
+            }
+            mismatches += ordered ? compareInOrder(records, recordedKeys, recordedLines, replayedKeys, replayedLines)
+                    : compareAsSet(tick, recordedKeys, recordedLines, replayedKeys, replayedLines);
+            records += recordedKeys.size();
+        }
+        if (mismatches == 0 && reader.finalStatistics == null) {
+            System.out.println("The journal has no final record, the run did not finish");
+            return false;
+        }
+        if (mismatches == 0) {
+            mismatches += compareEnd(reader, replayed);
+            mismatches += compareStatistics(reader.finalStatistics, stats);
+        }
+        System.out.printf("Replayed %d records of %d adventurers (seed %d): %s%n", records, reader.names.length,
+                reader.seed, mismatches == 0 ? "statistics match" : mismatches + " mismatches");
+        return mismatches == 0;
+    }
+
+    /**
+     * Compares the class, name, specs and start of every adventurer of two journals.
+     *
+     * @param recorded The journal of the run.
+     * @param replayed The journal of the replay.
+     * @return The number of adventurers that differ.
+     */
+    private static int compareAdventurers(BattleJournal.Reader recorded, BattleJournal.Reader replayed) {
+        if (recorded.names.length != replayed.names.length) {
+            System.out.printf("Recorded %d adventurers, replayed %d%n", recorded.names.length, replayed.names.length);
+            return 1;
+        }
+        int mismatches = 0;
+        for (int slot = 0; slot < recorded.names.length; slot++) {
+            if (!recorded.classes[slot].equals(replayed.classes[slot]) || !recorded.names[slot].equals(replayed.names[slot])
+                    || recorded.attack[slot] != replayed.attack[slot] || recorded.health[slot] != replayed.health[slot]
+                    || recorded.luck[slot] != replayed.luck[slot] || recorded.startX[slot] != replayed.startX[slot]
+                    || recorded.startY[slot] != replayed.startY[slot]) {
+                mismatches++;
+                System.out.printf("Slot %d: recorded %s %s %d/%d/%d at %d, %d; replayed %s %s %d/%d/%d at %d, %d%n", slot,
+                        recorded.classes[slot], recorded.names[slot], recorded.attack[slot], recorded.health[slot],
+                        recorded.luck[slot], recorded.startX[slot], recorded.startY[slot],
+                        replayed.classes[slot], replayed.names[slot], replayed.attack[slot], replayed.health[slot],
+                        replayed.luck[slot], replayed.startX[slot], replayed.startY[slot]);
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Reads the records of a journal up to and including the next tick or final record, the rest of the current
+     * tick.
+     *
+     * @param reader The journal reader.
+     * @param keys   Gets the type and fields of every record read.
+     * @param lines  Gets the description of every record read.
+     */
+    private static void readTick(BattleJournal.Reader reader, List<String> keys, List<String> lines) {
+        while (reader.next()) {
+            keys.add(recordKey(reader));
+            lines.add(reader.describe());
+            if (reader.type == BattleJournal.TICK || reader.type == BattleJournal.FINAL) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param reader The journal reader, at a record.
+     * @return The type and fields of the record, equal for two records with the same event whatever their position.
+     */
+    private static String recordKey(BattleJournal.Reader reader) {
+        return switch (reader.type) {
+            case BattleJournal.MOVE -> reader.type + " " + reader.slot + " " + reader.x + " " + reader.y;
+            case BattleJournal.ENGAGED -> reader.type + " " + reader.slot + " " + reader.other;
+            case BattleJournal.ATTACK -> reader.type + " " + reader.slot + " " + reader.other + " " + reader.value;
+            case BattleJournal.SKILL, BattleJournal.POTION -> reader.type + " " + reader.slot + " " + reader.value;
+            case BattleJournal.TICK -> reader.type + " " + reader.value;
+            default -> reader.type + " " + reader.slot;
+        };
+    }
+
+    /**
+     * Compares the records of a tick one by one and prints the first that diverges.
+     *
+     * @param records        The number of records before the tick.
+     * @param recordedKeys   The keys of the run's records.
+     * @param recordedLines  The descriptions of the run's records.
+     * @param replayedKeys   The keys of the replay's records.
+     * @param replayedLines  The descriptions of the replay's records.
+     * @return 1 when the records diverge, else 0.
+     */
+    private static int compareInOrder(long records, List<String> recordedKeys, List<String> recordedLines,
+                                      List<String> replayedKeys, List<String> replayedLines) {
+        int common = Math.min(recordedKeys.size(), replayedKeys.size());
+        for (int i = 0; i < common; i++) {
+            if (!recordedKeys.get(i).equals(replayedKeys.get(i))) {
+                System.out.printf("Record %d diverges: recorded %s; replayed %s%n", records + i + 1,
+                        recordedLines.get(i), replayedLines.get(i));
+                return 1;
+            }
+        }
+        if (recordedKeys.size() != replayedKeys.size()) {
+            System.out.printf("Record %d: the %s journal ends first%n", records + common + 1,
+                    recordedKeys.size() < replayedKeys.size() ? "recorded" : "replayed");
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Compares the records of a tick as a set, any order, and prints every record only one of the runs has.
+     *
+     * @param tick           The tick of the records, -1 before the first.
+     * @param recordedKeys   The keys of the run's records.
+     * @param recordedLines  The descriptions of the run's records.
+     * @param replayedKeys   The keys of the replay's records.
+     * @param replayedLines  The descriptions of the replay's records.
+     * @return 1 when the records differ, else 0.
+     */
+    private static int compareAsSet(int tick, List<String> recordedKeys, List<String> recordedLines,
+                                    List<String> replayedKeys, List<String> replayedLines) {
+        Map<String, Integer> counts = new HashMap<>(); //Recorded minus replayed occurrences of every key.
+        for (String key : recordedKeys) {
+            counts.merge(key, 1, Integer::sum);
+        }
+        for (String key : replayedKeys) {
+            counts.merge(key, -1, Integer::sum);
+        }
+        if (counts.values().stream().allMatch(count -> count == 0)) {
+            return 0;
+        }
+        System.out.printf("Tick %d diverges:%n", tick);
+        printUnmatched("recorded", recordedKeys, recordedLines, counts, 1);
+        printUnmatched("replayed", replayedKeys, replayedLines, counts, -1);
+        return 1;
+    }
+
+    /**
+     * Prints the records of one run that the other run does not have.
+     *
+     * @param run    The run the records belong to.
+     * @param keys   The keys of the run's records.
+     * @param lines  The descriptions of the run's records.
+     * @param counts Recorded minus replayed occurrences of every key, used up as records are printed.
+     * @param sign   1 for the recorded run, -1 for the replayed one.
+     */
+    private static void printUnmatched(String run, List<String> keys, List<String> lines, Map<String, Integer> counts,
+                                       int sign) {
+        for (int i = 0; i < keys.size(); i++) {
+            int count = counts.getOrDefault(keys.get(i), 0);
+            if (count * sign > 0) {
+                counts.put(keys.get(i), count - sign);
+                System.out.printf("    only %s: %s%n", run, lines.get(i));
+            }
+        }
+    }
+
+    /**
+     * Compares whether every adventurer was alive at the end and where.
+     *
+     * @param recorded The journal of the run, past its final record.
+     * @param replayed The journal of the replay, past its final record.
+     * @return The number of adventurers that differ.
+     */
+    private static int compareEnd(BattleJournal.Reader recorded, BattleJournal.Reader replayed) {
+        int mismatches = 0;
+        for (int slot = 0; slot < recorded.finalAlive.length; slot++) {
+            if (recorded.finalAlive[slot] != replayed.finalAlive[slot] || recorded.finalX[slot] != replayed.finalX[slot]
+                    || recorded.finalY[slot] != replayed.finalY[slot]) {
+                mismatches++;
+                System.out.printf("%s: recorded alive %b at %d, %d; replayed alive %b at %d, %d%n", recorded.names[slot],
+                        recorded.finalAlive[slot], recorded.finalX[slot], recorded.finalY[slot],
+                        replayed.finalAlive[slot], replayed.finalX[slot], replayed.finalY[slot]);
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Diffs the replay's statistics against the journaled summaries, skipping the ones measured with the clock.
+     *
+     * @param recorded The summary of every statistic of the run, by component and name.
+     * @param stats    The statistics container of the replay.
+     * @return The number of statistics that differ or are missing on either side.
+     */
+    private static int compareStatistics(Map<String, Map<String, Float>> recorded, StatisticsContainer stats) {
+        int mismatches = 0;
+        Set<String> components = new LinkedHashSet<>(recorded.keySet());
+        components.addAll(stats.getComponentNames());
+        for (String component : components) {
+            Map<String, Float> recordedStats = recorded.getOrDefault(component, Map.of());
+            Statistics replayedStats = stats.getComponent(component);
+            Set<String> names = new LinkedHashSet<>(recordedStats.keySet());
+            if (replayedStats != null) {
+                names.addAll(replayedStats.getStatisticNames());
+            }
+            for (String name : names) {
+                if (BattleJournal.TIMED_STATISTICS.contains(name)) {
+                    continue;
+                }
+                Float before = recordedStats.get(name);
+                Float after = replayedStats != null && replayedStats.getStatisticNames().contains(name)
+                        ? replayedStats.getStatistic(name).summarize() : null;
+                //The summaries went through a float in the journal, so they only have to match to float precision.
+                if (before == null || after == null
+                        || Math.abs(before - after) > STATISTIC_TOLERANCE * Math.max(1, Math.abs(before))) {
+                    mismatches++;
+                    System.out.printf("%s %s: recorded %s, replayed %s%n", component, name, before, after);
+                }
+            }
+        }
+        return mismatches;
+    }
+}
@@ -6,6 +6,7 @@
  */
 
 import Skeleton.SimulationInput;
+import Skeleton.StatisticsContainer;
 
 class Knight extends Adventurer {
     /**
@@ -21,6 +22,20 @@ class Knight extends Adventurer {
         super(name, atk, hp, lck, input);
     }
 
+    /**
+     * Constructor for a Knight whose statistics go to the given container instead of the shared one.
+     *
+     * @param name  The String name for the adventurer.
+     * @param atk   The int attack value for the adventurer.
+     * @param hp    The int hp value for the adventurer.
+     * @param lck   The int luck value for the adventurer.
+     * @param input The simulation input object for the adventurer object.
+     * @param stats The statistics container of the run the adventurer belongs to.
+     */
+    public Knight(String name, int atk, int hp, int lck, SimulationInput input, StatisticsContainer stats) {
+        super(name, atk, hp, lck, input, stats);
+    }
+
     /**
      * SimulationInput Constructor for the Adventurer object with input.
      * All subclasses will inherit from this superclass constructor.
@@ -35,7 +50,14 @@ class Knight extends Adventurer {
      * uniqueSkill method that signals the BattleGrid to perform the unique skill.
      */
     public int uniqueSkill() {
-        System.out.println("    >Knight uses unique skill Enrage.");
+        getLog().log(BattleLog.Event.SKILL, this, null, 1, 0, 0, "Knight uses unique skill Enrage.");
+        return 1;
+    }
+
+    /**
+     * getClassId method that gives the class id shared by every Knight.
+     */
+    public byte getClassId() {
         return 1;
     }
 }
\ No newline at end of file
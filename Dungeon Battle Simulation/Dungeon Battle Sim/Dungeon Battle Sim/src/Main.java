@@ -20,10 +20,10 @@ public class Main {
      * @return The statistics of the test run.
      **/
     public static StatisticsContainer runTest(SimulationInput input) {
-        // Initialize the stats singleton here so the input can
-        // be ignored in future calls
-        StatisticsContainer stats = StatisticsContainer.getInstance(input);
-        Matrix.run(input);
+        // Start from fresh stats and grid singletons so the input can
+        // be ignored in future calls, and no units carry over from an earlier test
+        StatisticsContainer stats = StatisticsContainer.reset(input);
+        Matrix.run(input, BattleGrid.reset(input));
 
         return stats;
     }
@@ -53,8 +53,8 @@ public class Main {
         //Second simulation probing 0 time edge case.
         System.out.println("Simulation 2: T -> 0s, Actions/s -> 1");
         SimulationInput siTwo = new SimulationInput();
-        si.addInput("Time", List.of("20")); // In seconds
-        si.addInput("ActionsPerSecond", List.of("0"));
+        siTwo.addInput("Time", List.of("0")); // In seconds
+        siTwo.addInput("ActionsPerSecond", List.of("1"));
 
         // Run the simulation
         StatisticsContainer statsTwo = runTest(siTwo);
@@ -66,8 +66,8 @@ public class Main {
         //Third simulation probing 0 actions/seconds edge case.
         System.out.println("Simulation 3: T -> 20s, Actions/s -> 0");
         SimulationInput siThree = new SimulationInput();
-        si.addInput("Time", List.of("20")); // In seconds
-        si.addInput("ActionsPerSecond", List.of("0"));
+        siThree.addInput("Time", List.of("20")); // In seconds
+        siThree.addInput("ActionsPerSecond", List.of("0"));
 
         // Run the simulation
         StatisticsContainer statsThree = runTest(siThree);
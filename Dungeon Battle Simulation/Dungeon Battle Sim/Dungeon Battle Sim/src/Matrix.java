@@ -4,39 +4,111 @@
  * Description: The class that is responsible for running the simulation.
  */
 
+import Skeleton.SimulationConfig;
 import Skeleton.SimulationInput;
+import Skeleton.StatisticsContainer;
+import Skeleton.UnitScheduler;
 
 import java.lang.Thread;
-import java.util.ArrayList;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
 
 public class Matrix {
+    public static final String[] REQUIRED_INPUTS = {"Time", "ActionsPerSecond"}; //The inputs every run needs.
+
     /**
      * The run method for the simulation.
+     * The Engine input picks Threaded (default), one thread per adventurer paced by the wall clock,
+     * or Tick, the headless TickEngine that runs the same number of actions as fast as it can.
      *
      * @param input The simulation input object for the statistics.
      */
     public static void run(SimulationInput input) {
         //The singleton instance for the grid for the battle is created.
-        BattleGrid grid = BattleGrid.getInstance();
+        run(input, BattleGrid.getInstance(input));
+    }
 
-        //The adventurers that will battle are created, along with defined specs.
-        Knight knight = new Knight("Knight", 15, 100, 10, input);
-        Mage mage = new Mage("Mage", 20, 50, 10, input);
-        Rogue rogue = new Rogue("Rogue", 10, 60, 30, input);
-        Healer healer = new Healer("Healer", 10, 70, 20, input);
+    /**
+     * The run method for the simulation on a given grid, used by tools that need a fresh grid for every run.
+     * The Runner input picks the threads of the Threaded engine: Platform (default) or Virtual, which can carry
+     * tens of thousands of adventurers since blocking on semaphores and sleeps only parks the virtual thread,
+     * or Scheduled, which keeps every adventurer's timer on one small pool and runs each due action on a virtual
+     * thread (see Skeleton.UnitScheduler).
+     *
+     * @param input The simulation input object for the statistics.
+     * @param grid  The grid for the battle.
+     */
+    public static void run(SimulationInput input, BattleGrid grid) {
+        run(input, grid, StatisticsContainer.getInstance(input));
+    }
 
-        //The adventurers are added to the grid.
-        grid.addAdventurer(knight, 4, 4);
-        grid.addAdventurer(mage, 1, 1);
-        grid.addAdventurer(rogue, 1, 4);
-        grid.addAdventurer(healer, 4, 1);
+    /**
+     * The run method for the simulation on a given grid with its own statistics, so runs side by side share no state.
+     * When the Journal input names a file the run is also recorded there as a BattleJournal.
+     *
+     * @param input The simulation input object for the statistics.
+     * @param grid  The grid for the battle.
+     * @param stats The statistics container the adventurers report to.
+     */
+    public static void run(SimulationInput input, BattleGrid grid, StatisticsContainer stats) {
+        //A missing key fails the run here, before any adventurer is created.
+        SimulationConfig config = input.getConfig().require(REQUIRED_INPUTS);
+        populate(input, grid, stats);
+        BattleJournal journal = null;
+        if (config.has("Journal")) {
+            journal = BattleJournal.create(Path.of(config.getString("Journal")), grid, config);
+            grid.getLog().attachJournal(journal);
+        }
+        try {
+            runEngine(input, grid);
+        } finally {
+            stats.stopGauges();
+            //Everything logged during the run is printed before the caller prints its results.
+            try {
+                grid.getLog().close();
+            } finally {
+                if (journal != null) {
+                    journal.close(grid, stats);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the engine picked by the Engine input on a populated grid.
+     *
+     * @param input The simulation input object for the statistics.
+     * @param grid  The grid for the battle.
+     */
+    private static void runEngine(SimulationInput input, BattleGrid grid) {
+        if (input.getStringInput("Engine", "Threaded").equals("Tick")) {
+            try {
+                new TickEngine(input, grid).run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+
+        List<Adventurer> adventurers = grid.getAdventurers();
+        String runner = input.getStringInput("Runner", "Platform");
+        if (runner.equals("Scheduled")) {
+            //The adventurers share the scheduler's threads, a thread per adventurer is never created.
+            try {
+                UnitScheduler.runAll(input, adventurers);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
 
         //The adventurer threads are put into an array.
-        Thread[] threads = new Thread[4];
-        threads[0] = new Thread(knight);
-        threads[1] = new Thread(mage);
-        threads[2] = new Thread(rogue);
-        threads[3] = new Thread(healer);
+        Thread.Builder builder = runner.equals("Virtual") ? Thread.ofVirtual() : Thread.ofPlatform();
+        Thread[] threads = new Thread[adventurers.size()];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = builder.unstarted(adventurers.get(i));
+        }
 
         //The adventurer threads are started.
         for (Thread thread : threads) {
@@ -49,4 +121,68 @@ public class Matrix {
             }
         }
     }
+
+    /**
+     * Creates the adventurers that will battle and adds them to the grid.
+     * The AdventurersPerClass input (default 1) adds more of each class at random free tiles after the first four,
+     * named with their number ("Knight 2", "Knight 3", ...).
+     *
+     * @param input The simulation input object for the adventurers.
+     * @param grid  The grid for the battle.
+     * @param stats The statistics container the adventurers report to.
+     */
+    private static void populate(SimulationInput input, BattleGrid grid, StatisticsContainer stats) {
+        //The adventurers that will battle are created, along with defined specs.
+        Knight knight = new Knight("Knight", 15, 100, 10, input, stats);
+        Mage mage = new Mage("Mage", 20, 50, 10, input, stats);
+        Rogue rogue = new Rogue("Rogue", 10, 60, 30, input, stats);
+        Healer healer = new Healer("Healer", 10, 70, 20, input, stats);
+
+        //The adventurers are added to the grid.
+        grid.addAdventurer(knight, 4, 4);
+        grid.addAdventurer(mage, 1, 1);
+        grid.addAdventurer(rogue, 1, 4);
+        grid.addAdventurer(healer, 4, 1);
+
+        int perClass = input.getIntegerInput("AdventurersPerClass", 1);
+        SplittableRandom random = grid.splitRandom();
+        for (int i = 2; i <= perClass; i++) {
+            placeRandomly(grid, new Knight("Knight " + i, 15, 100, 10, input, stats), random);
+            placeRandomly(grid, new Mage("Mage " + i, 20, 50, 10, input, stats), random);
+            placeRandomly(grid, new Rogue("Rogue " + i, 10, 60, 30, input, stats), random);
+            placeRandomly(grid, new Healer("Healer " + i, 10, 70, 20, input, stats), random);
+        }
+    }
+
+    /**
+     * Adds an adventurer at a random tile, retrying taken tiles on a lock-free grid. After 100 taken tiles in a row
+     * the grid is crowded, so the tiles are scanned in order from a random one and the adventurer goes to the first
+     * free tile.
+     *
+     * @param grid       The grid for the battle.
+     * @param adventurer The adventurer being added.
+     * @param random     The random stream of the placement, split from the grid's seed.
+     * @throws RuntimeException When no tile is free, this should fail the entire simulation.
+     */
+    private static void placeRandomly(BattleGrid grid, Adventurer adventurer, SplittableRandom random) {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            int x = random.nextInt(grid.getX());
+            int y = random.nextInt(grid.getY());
+            if (grid.addAdventurer(adventurer, x, y)) {
+                return;
+            }
+        }
+        int tiles = grid.getX() * grid.getY();
+        int start = random.nextInt(tiles);
+        for (int i = 0; i < tiles; i++) {
+            int tile = (start + i) % tiles;
+            int x = tile % grid.getX();
+            int y = tile / grid.getX();
+            if (grid.isFree(x, y) && grid.addAdventurer(adventurer, x, y)) {
+                return;
+            }
+        }
+        throw new RuntimeException(String.format("No free tile for %s, the %dx%d grid is full",
+                adventurer.getName(), grid.getX(), grid.getY()));
+    }
 }
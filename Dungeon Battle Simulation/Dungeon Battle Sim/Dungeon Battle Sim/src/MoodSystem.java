@@ -1,40 +1,88 @@
 /**
  * Name: Jonathan Boyle
  * Date: April 25th 2024
- * Description: The file containing the MoodState interface, and inner classes for the action methods for each mood.
+ * Description: The file containing the MoodState enum, with the action methods for each mood.
  * This file implements the State Design pattern, as each mood is a state for a given adventurer object.
+ * The moods are a state machine: each mood is a shared enum constant that knows its combat modifiers and which mood
+ * follows it when the adventurer takes a hit, wins a battle or dies, so changing mood never allocates.
  */
 
 /**
- * The mood state interface that defines the mood action method.
+ * The mood states, with the attack and luck modifiers the adventurer fights with while in them.
  */
-interface MoodState {
-    void moodAction(Adventurer adventurer) throws InterruptedException;
-}
+enum MoodState {
+    NEUTRAL(0, 0) {
+        public void moodAction(Adventurer adventurer) throws InterruptedException {
+            adventurer.performNeutralAction();
+        }
+    },
+    HAPPY(0, 5) {
+        public void moodAction(Adventurer adventurer) throws InterruptedException {
+            adventurer.performHappyAction();
+        }
+    },
+    ANGRY(5, -5) {
+        public void moodAction(Adventurer adventurer) throws InterruptedException {
+            adventurer.performAngryAction();
+        }
+    };
 
-/**
- * The class that defines the concrete state for the happy mood, with mood action for the adventurer.
- */
-class HappyMoodState implements MoodState {
-    public void moodAction(Adventurer adventurer) throws InterruptedException {
-        adventurer.performHappyAction();
+    public static final int HAPPY_HEALTH = 40; //A winner with more health than this is happy, otherwise angry.
+    public static final int LOW_HEALTH = 30; //A hit that leaves this much health or less makes the adventurer angry.
+
+    final int attackModifier; //Added to the attack value while in the mood.
+    final int luckModifier; //Added to the luck value while in the mood.
+    final String statistic; //The name of the statistic counting the transitions into the mood.
+
+    /**
+     * Constructor for a mood.
+     *
+     * @param attackModifier Added to the attack value while in the mood.
+     * @param luckModifier   Added to the luck value while in the mood.
+     */
+    MoodState(int attackModifier, int luckModifier) {
+        this.attackModifier = attackModifier;
+        this.luckModifier = luckModifier;
+        this.statistic = "MoodChangesTo" + name().charAt(0) + name().substring(1).toLowerCase();
     }
-}
 
-/**
- * The class that defines the concrete state for the angry mood, with mood action for the adventurer.
- */
-class AngryMoodState implements MoodState {
-    public void moodAction(Adventurer adventurer) throws InterruptedException {
-        adventurer.performAngryAction();
+    /**
+     * The action the adventurer performs when it enters the mood by winning or dying.
+     *
+     * @param adventurer The adventurer in the mood.
+     * @throws InterruptedException
+     */
+    public abstract void moodAction(Adventurer adventurer) throws InterruptedException;
+
+    /**
+     * Transition for a hit the adventurer survived: low health makes it angry, otherwise a hit sobers a happy
+     * adventurer and leaves any other mood as it is.
+     *
+     * @param health The battle-local health left after the hit.
+     */
+    MoodState onDamaged(int health) {
+        if (health <= LOW_HEALTH) {
+            return ANGRY;
+        }
+        return this == HAPPY ? NEUTRAL : this;
     }
-}
 
-/**
- * The class that defines the concrete state for the neutral mood, with mood action for the adventurer.
- */
-class NeutralMoodState implements MoodState {
-    public void moodAction(Adventurer adventurer) throws InterruptedException {
-        adventurer.performNeutralAction();
+    /**
+     * Transition for winning a battle, happy with plenty of health left, angry otherwise.
+     *
+     * @param health The battle-local health left at the end of the battle.
+     */
+    MoodState onVictory(int health) {
+        if (health > HAPPY_HEALTH) {
+            return HAPPY;
+        }
+        return health > 0 ? ANGRY : NEUTRAL;
     }
-}
\ No newline at end of file
+
+    /**
+     * Transition for dying, the dead have no emotion.
+     */
+    MoodState onDeath() {
+        return NEUTRAL;
+    }
+}
@@ -4,63 +4,112 @@
  * Description: The file containing the PotionHandler interface, with inner classes for the handlers and builder.
  * This file implements the Chain of Responsibility Design pattern, as the potion creating and run through
  * multiple handlers that fill it with different ingredients it is completed.
+ * A potion is a small integer id into a PotionCatalog, which names every combination of ingredients and sums their
+ * stat modifiers once when it is built, so creating a potion is a walk down the chain and a table lookup.
+ * The ingredients are data: a new tier is one more IngredientTier in PotionCatalog.STANDARD_TIERS, not a new class.
  */
 
+import java.util.SplittableRandom;
+
 /**
  * The potion handler interface that defines the methods used by the individual handler classes.
  */
 interface PotionHandler {
-    String handleIngredient(); //Insert an ingredient into the potion.
+    int handleIngredient(SplittableRandom random); //Pick an ingredient for the potion, returns its index in the tier.
+
+    IngredientTier getTier(); //The tier of ingredients the handler picks from.
 
     void setNextHandler(PotionHandler handler); //Go to the next handler.
+
+    PotionHandler getNextHandler(); //The next handler, null at the end of the chain.
 }
 
 /**
- * The class that defines the concrete handler for the first ingredient.
+ * The class that defines one ingredient and the stat modifier it gives the adventurer who drinks the potion.
  */
-class IngredientHandlerOne implements PotionHandler {
-    PotionHandler nextHandler; //Handler object that holds the next handler object.
+class Ingredient {
+    final String name; //The name of the ingredient.
+    final int attack; //The attack modifier.
+    final int health; //The health modifier.
+    final int luck; //The luck modifier.
 
     /**
-     * Method to pick a random ingredient between three fruits.
+     * Constructor for an ingredient.
+     *
+     * @param name   The name of the ingredient.
+     * @param attack The attack modifier.
+     * @param health The health modifier.
+     * @param luck   The luck modifier.
      */
-    public String handleIngredient() {
-        int ingredientChoice = (int) Math.floor(Math.random() * (3 - 1 + 1) + 1);
-        return switch (ingredientChoice) {
-            case 1 -> "Raspberry";
-            case 2 -> "Blueberry";
-            case 3 -> "Strawberry";
-            default -> null;
-        };
+    Ingredient(String name, int attack, int health, int luck) {
+        this.name = name;
+        this.attack = attack;
+        this.health = health;
+        this.luck = luck;
     }
+}
+
+/**
+ * The class that defines a tier of ingredients, every potion holds exactly one ingredient of every tier.
+ */
+class IngredientTier {
+    final String name; //The name of the tier.
+    final Ingredient[] ingredients; //The ingredients of the tier.
 
     /**
-     * Setter for the next handler.
+     * Constructor for a tier.
      *
-     * @param handler The next handler in the chain.
+     * @param name        The name of the tier.
+     * @param ingredients The ingredients of the tier, at least one.
+     * @throws RuntimeException When the tier has no ingredients, this should fail the entire simulation.
      */
-    public void setNextHandler(PotionHandler handler) {
-        this.nextHandler = handler;
+    IngredientTier(String name, Ingredient... ingredients) {
+        if (ingredients.length == 0) {
+            throw new RuntimeException(String.format("Ingredient tier %s has no ingredients", name));
+        }
+        this.name = name;
+        this.ingredients = ingredients;
+    }
+
+    /**
+     * Getter for the number of ingredients in the tier.
+     */
+    int size() {
+        return ingredients.length;
     }
 }
 
 /**
- * The class that defines the concrete handler for the second ingredient.
+ * The class that defines the concrete handler for a tier of ingredients.
  */
-class IngredientHandlerTwo implements PotionHandler {
-    PotionHandler nextHandler; //Handler object that holds the next handler object.
+class IngredientHandler implements PotionHandler {
+    private final IngredientTier tier; //The tier the handler picks from.
+    private PotionHandler nextHandler; //Handler object that holds the next handler object.
+
+    /**
+     * Constructor for a handler.
+     *
+     * @param tier The tier the handler picks from.
+     */
+    IngredientHandler(IngredientTier tier) {
+        this.tier = tier;
+    }
 
     /**
-     * Method to pick a random ingredient between three vegetables.
+     * Method to pick a random ingredient of the tier.
+     *
+     * @param random The random stream of the battle.
+     * @return The index of the ingredient picked.
      */
-    public String handleIngredient() {
-        int ingredientChoiceTwo = (int) Math.floor(Math.random() * (3 - 1 + 1) + 1);
-        return switch (ingredientChoiceTwo) {
-            case 1 -> "Lettuce";
-            case 2 -> "Carrot";
-            case 3 -> "Potato";
-            default -> null;
-        };
+    public int handleIngredient(SplittableRandom random) {
+        return random.nextInt(tier.size());
+    }
+
+    /**
+     * Getter for the tier the handler picks from.
+     */
+    public IngredientTier getTier() {
+        return this.tier;
     }
 
     /**
@@ -71,34 +120,120 @@ class IngredientHandlerTwo implements PotionHandler {
     public void setNextHandler(PotionHandler handler) {
         this.nextHandler = handler;
     }
+
+    /**
+     * Getter for the next handler, null at the end of the chain.
+     */
+    public PotionHandler getNextHandler() {
+        return this.nextHandler;
+    }
 }
 
 /**
- * The class that defines the concrete handler for the third ingredient.
+ * The catalog of every potion that can be made from a list of tiers. The id of a potion is its ingredient indexes
+ * read as the digits of a mixed-radix number, first tier first, so the standard 3 x 3 x 3 tiers give ids 0 to 26.
  */
-class IngredientHandlerThree implements PotionHandler {
-    private PotionHandler nextHandler; //Handler object that holds the next handler object.
+class PotionCatalog {
+    //The standard tiers: fruits bring luck, vegetables health and proteins attack.
+    static final IngredientTier[] STANDARD_TIERS = {
+            new IngredientTier("Fruit",
+                    new Ingredient("Raspberry", 0, 0, 5),
+                    new Ingredient("Blueberry", 0, 5, 5),
+                    new Ingredient("Strawberry", 0, 0, 10)),
+            new IngredientTier("Vegetable",
+                    new Ingredient("Lettuce", 0, 10, 0),
+                    new Ingredient("Carrot", 0, 5, 5),
+                    new Ingredient("Potato", 0, 20, -5)),
+            new IngredientTier("Protein",
+                    new Ingredient("Steak", 5, 0, 0),
+                    new Ingredient("Chicken", 3, 5, 0),
+                    new Ingredient("Fish", 2, 0, 5))
+    };
+    static final PotionCatalog STANDARD = new PotionCatalog(STANDARD_TIERS); //The catalog every battle brews from.
+
+    private final IngredientTier[] tiers; //The tiers, in chain order.
+    private final String[] names; //The name of every potion, by id.
+    private final int[] attack; //The summed attack modifier of every potion, by id.
+    private final int[] health; //The summed health modifier of every potion, by id.
+    private final int[] luck; //The summed luck modifier of every potion, by id.
 
     /**
-     * Method to pick a random ingredient between three proteins.
+     * Constructor that names every potion and sums its modifiers.
+     *
+     * @param tiers The tiers, in chain order.
+     * @throws RuntimeException When there are no tiers or too many potions, this should fail the entire simulation.
      */
-    public String handleIngredient() {
-        int ingredientChoiceThree = (int) Math.floor(Math.random() * (3 - 1 + 1) + 1);
-        return switch (ingredientChoiceThree) {
-            case 1 -> "Steak";
-            case 2 -> "Chicken";
-            case 3 -> "Fish";
-            default -> null;
-        };
+    PotionCatalog(IngredientTier... tiers) {
+        long size = 1;
+        for (IngredientTier tier : tiers) {
+            size *= tier.size();
+        }
+        if (tiers.length == 0 || size > Short.MAX_VALUE) {
+            throw new RuntimeException(String.format("A potion catalog needs 1 to %d potions, got %d tiers making %d",
+                    Short.MAX_VALUE, tiers.length, tiers.length == 0 ? 0 : size));
+        }
+        this.tiers = tiers;
+        names = new String[(int) size];
+        attack = new int[names.length];
+        health = new int[names.length];
+        luck = new int[names.length];
+        for (int id = 0; id < names.length; id++) {
+            StringBuilder name = new StringBuilder();
+            int rest = id;
+            //The last tier is the lowest digit, so the ingredients are read back to front.
+            for (int t = tiers.length - 1; t >= 0; t--) {
+                Ingredient ingredient = tiers[t].ingredients[rest % tiers[t].size()];
+                rest /= tiers[t].size();
+                name.insert(0, t == 0 ? ingredient.name : " + " + ingredient.name);
+                attack[id] += ingredient.attack;
+                health[id] += ingredient.health;
+                luck[id] += ingredient.luck;
+            }
+            names[id] = name.toString();
+        }
     }
 
     /**
-     * Setter for the next handler.
+     * Method that builds the chain of handlers for the tiers, one handler per tier.
+     */
+    PotionHandler buildChain() {
+        PotionHandler first = new IngredientHandler(tiers[0]);
+        PotionHandler last = first;
+        for (int t = 1; t < tiers.length; t++) {
+            PotionHandler handler = new IngredientHandler(tiers[t]);
+            last.setNextHandler(handler);
+            last = handler;
+        }
+        return first;
+    }
+
+    /**
+     * Getter for the number of potions in the catalog.
+     */
+    int size() {
+        return names.length;
+    }
+
+    /**
+     * Getter for the name of a potion, like "Raspberry + Carrot + Fish".
      *
-     * @param handler The next handler in the chain.
+     * @param id The potion id.
      */
-    public void setNextHandler(PotionHandler handler) {
-        this.nextHandler = handler;
+    String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * Method that makes an adventurer drink a potion, adding its modifiers to the battle-local specs (atk, hp, lck).
+     * Attack and luck never drop below 0 and health never below 1, a potion alone cannot kill.
+     *
+     * @param id    The potion id.
+     * @param specs The battle-local specs of the drinker.
+     */
+    void apply(int id, int[] specs) {
+        specs[0] = Math.max(0, specs[0] + attack[id]);
+        specs[1] = Math.max(1, specs[1] + health[id]);
+        specs[2] = Math.max(0, specs[2] + luck[id]);
     }
 }
 
@@ -106,31 +241,44 @@ class IngredientHandlerThree implements PotionHandler {
  * Potion builder class that calls the chain in order to create a potion.
  */
 class PotionBuilder {
-    private PotionHandler firstHandler; //The object for the first handler in the chain.
+    private final PotionCatalog catalog; //The catalog the potions come from.
+    private final PotionHandler firstHandler; //The object for the first handler in the chain.
 
     /**
-     * Method to build the potions using the chain of handlers.
+     * Method to build the potions using the chain of handlers of the standard catalog.
      */
     public PotionBuilder() {
-        //Initialize the chain of handlers.
-        PotionHandler handlerOne = new IngredientHandlerOne();
-        PotionHandler handlerTwo = new IngredientHandlerTwo();
-        PotionHandler handlerThree = new IngredientHandlerThree();
+        this(PotionCatalog.STANDARD);
+    }
 
-        //Set the next handlers to create the chain.
-        handlerOne.setNextHandler(handlerTwo);
-        handlerTwo.setNextHandler(handlerThree);
+    /**
+     * Method to build the potions using the chain of handlers of a catalog.
+     *
+     * @param catalog The catalog the potions come from.
+     */
+    public PotionBuilder(PotionCatalog catalog) {
+        this.catalog = catalog;
+        this.firstHandler = catalog.buildChain();
+    }
 
-        //Define the first handler in the chain.
-        firstHandler = handlerOne;
+    /**
+     * The method to traverse the chain in order to pick the ingredients, and give the id of the potion they make.
+     *
+     * @param random The random stream the ingredients are picked with.
+     * @return The potion id in the builder's catalog.
+     */
+    public int createPotion(SplittableRandom random) {
+        int id = 0;
+        for (PotionHandler handler = firstHandler; handler != null; handler = handler.getNextHandler()) {
+            id = id * handler.getTier().size() + handler.handleIngredient(random);
+        }
+        return id;
     }
 
     /**
-     * The method to traverse the chain in order to output the String of the potion with ingredients.
+     * Getter for the catalog the potions come from.
      */
-    public String createPotion() {
-        return firstHandler.handleIngredient() + " + " +
-                ((IngredientHandlerOne) firstHandler).nextHandler.handleIngredient() + " + " +
-                ((IngredientHandlerTwo) ((IngredientHandlerOne) firstHandler).nextHandler).nextHandler.handleIngredient();
+    public PotionCatalog getCatalog() {
+        return catalog;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,52 @@
+/**
+ * Name: Jonathan Boyle
+ * Date: October 18th 2026
+ * Description: Standalone check that every runner of the threaded engine keeps to the Time input with many units.
+ * It runs the same real-time workload, battles with their pauses between rounds included, on the Platform,
+ * Virtual and Scheduled runners and prints how long each run took next to Time and the actions it performed.
+ * A run can only outlast Time by the battles still going when its time is up, so the runners should be close.
+ * Arguments: [AdventurersPerClass, default 250] [Time, default 3] [ActionsPerSecond, default 2]
+ * [grid side, default 64].
+ */
+
+import Skeleton.SimulationInput;
+import Skeleton.StatisticsContainer;
+
+import java.util.List;
+
+public class RunnerWallClock {
+    private static final String[] RUNNERS = {"Platform", "Virtual", "Scheduled"}; //The runners compared.
+
+    public static void main(String[] args) {
+        int perClass = args.length > 0 ? Integer.parseInt(args[0]) : 250;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        double actionsPerSecond = args.length > 2 ? Double.parseDouble(args[2]) : 2;
+        int side = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+
+        System.out.printf("%d adventurers on a %dx%d grid, Time %d s at %s actions/s, real-time pacing%n",
+                perClass * 4, side, side, seconds, actionsPerSecond);
+        System.out.printf("%10s %12s %14s %14s%n", "runner", "wall s", "actions", "scheduled");
+        for (String runner : RUNNERS) {
+            SimulationInput input = new SimulationInput();
+            input.addInput("Time", List.of(String.valueOf(seconds)));
+            input.addInput("ActionsPerSecond", List.of(String.valueOf(actionsPerSecond)));
+            input.addInput("AdventurersPerClass", List.of(String.valueOf(perClass)));
+            input.addInput("GridWidth", List.of(String.valueOf(side)));
+            input.addInput("GridHeight", List.of(String.valueOf(side)));
+            input.addInput("Runner", List.of(runner));
+            input.addInput("LogLevel", List.of("Off"));
+
+            BattleGrid grid = new BattleGrid(input);
+            long start = System.nanoTime();
+            Matrix.run(input, grid, StatisticsContainer.newInstance(input));
+            double elapsed = (System.nanoTime() - start) / 1e9;
+
+            long performed = 0;
+            for (Adventurer adventurer : grid.getAdventurers()) {
+                performed += adventurer.getActionsPerformed();
+            }
+            double scheduled = (double) grid.getAdventurers().size() * seconds * actionsPerSecond;
+            System.out.printf("%10s %12.1f %14d %14.0f%n", runner, elapsed, performed, scheduled);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package Skeleton;
+
+/**
+ * The slots a unit's actions are due in, on the nanosecond clock of its
+ * Skeleton.Pacing. Slot k is due at start + k / `ActionsPerSecond` seconds
+ * and the run ends `Time` seconds after start.
+ *
+ * `ActionsPerSecond` may be fractional (0.5 is one action every two
+ * seconds) or far above 1000, every slot keeps its own due time instead of
+ * a period rounded to whole milliseconds. A rate of 0 is an idle unit that
+ * has no slots and only waits for the end of the run.
+ *
+ * The "MissedSlots" input picks what happens when an action starts after
+ * the next slot is already due:
+ * 		CatchUp (default) runs the missed slots back to back until the unit
+ * 		is on schedule again, so a run has every action it was due.
+ * 		Skip drops the missed slots but the latest, which runs at once,
+ * 		so the unit is never more than one slot behind.
+ *
+ * Because every slot has a due time, lateness is measured from when an
+ * action should have started rather than when it did, so a slow action
+ * shows up in the lag of every action it delayed.
+ */
+public class ActionSchedule {
+	private final long start; // The clock time of slot 0
+	private final long end; // The clock time the run ends
+	private final double nanosPerAction; // The time between slots, infinite for an idle unit
+	private final boolean skipMissed; // Whether missed slots are dropped instead of caught up
+	private long slot; // The next slot to run
+
+	/**
+	 * @param input The simulation input with the Time, ActionsPerSecond and
+	 * 		  MissedSlots values.
+	 * @param start The clock time of the first slot in nanoseconds.
+	 * @throws RuntimeException When the rate is negative or not a number,
+	 * 		   or the policy is unknown. This should fail the entire simulation.
+	 */
+	public ActionSchedule(SimulationInput input, long start) {
+		SimulationConfig config = input.getConfig();
+		double actionsPerSecond = config.getDouble("ActionsPerSecond");
+		if (!(actionsPerSecond >= 0) || Double.isInfinite(actionsPerSecond)) {
+			throw new RuntimeException(String.format("ActionsPerSecond must be 0 or more, got %s", actionsPerSecond));
+		}
+		String missedSlots = config.getString("MissedSlots", "CatchUp");
+		if (!missedSlots.equals("CatchUp") && !missedSlots.equals("Skip")) {
+			throw new RuntimeException(String.format("Unknown MissedSlots: %s", missedSlots));
+		}
+		this.start = start;
+		this.end = start + config.getLong("Time") * 1_000_000_000L;
+		this.nanosPerAction = 1e9 / actionsPerSecond;
+		this.skipMissed = missedSlots.equals("Skip");
+	}
+
+	/**
+	 * @param now The current clock time.
+	 * @return Whether another slot is due before the run ends and the run
+	 * has not ended yet, slots still missed at the end are never run.
+	 */
+	public boolean hasNext(long now) {
+		return this.getDue() < this.end && now < this.end;
+	}
+
+	/**
+	 * @return The clock time the next slot is due, Long.MAX_VALUE for an idle unit.
+	 */
+	public long getDue() {
+		if (Double.isInfinite(this.nanosPerAction)) {
+			return Long.MAX_VALUE;
+		}
+		// In double, so a slow rate far past the end saturates instead of overflowing
+		return (long) Math.min(Long.MAX_VALUE, this.start + this.slot * this.nanosPerAction);
+	}
+
+	/**
+	 * @return The clock time the run ends.
+	 */
+	public long getEnd() {
+		return this.end;
+	}
+
+	/**
+	 * Move past the slot that just ran.
+	 */
+	public void advance() {
+		this.slot++;
+	}
+
+	/**
+	 * Under Skip, drop every slot that was due before now except the last,
+	 * so the next action runs at most one slot late. Under CatchUp nothing
+	 * is dropped.
+	 *
+	 * @param now The current clock time.
+	 * @return The number of slots dropped.
+	 */
+	public long skipMissed(long now) {
+		if (!this.skipMissed || now <= this.getDue()) {
+			return 0;
+		}
+		long current = (long) ((now - this.start) / this.nanosPerAction);
+		long skipped = Math.max(0, current - this.slot);
+		this.slot += skipped;
+		return skipped;
+	}
+}
@@ -0,0 +1,98 @@
+package Skeleton;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Use this for statistics that only ever count, like "MovesPerformed".
+ * Instead of keeping every sample in the list, the samples are summed
+ * into a LongAdder, which spreads the count over striped cells so threads
+ * adding at the same time do not contend on one lock or one word.
+ * Memory stays constant however long the run is, and summarize reads the
+ * sum instead of unboxing a list.
+ */
+
+public class CounterStatistic extends Statistic {
+	private final LongAdder count = new LongAdder();
+
+	public CounterStatistic(String name) {
+		super(name);
+	}
+
+	/**
+	 * Add one to the count.
+	 */
+	public void increment() {
+		this.count.increment();
+	}
+
+	/**
+	 * Add an amount to the count.
+	 * @param amount The amount to add.
+	 */
+	public void add(long amount) {
+		this.count.add(amount);
+	}
+
+	/**
+	 * Add a sample to the count, so a counter can replace a WorkerStatistic
+	 * without changing the code adding to it.
+	 * @param item The sample, any Number.
+	 */
+	@Override
+	public void addValue(Object item) {
+		this.count.add(((Number) item).longValue());
+	}
+
+	/**
+	 * A counter keeps no samples, so none can be removed.
+	 * @throws RuntimeException Always.
+	 */
+	@Override
+	public void removeValue(int index) {
+		throw new RuntimeException(String.format("Counter statistic %s keeps no samples to remove", this.getName()));
+	}
+
+	/**
+	 * A counter keeps no samples, index 0 gives the count.
+	 * @throws RuntimeException For any other index.
+	 */
+	@Override
+	public Object getValue(int index) {
+		if (index != 0) {
+			throw new RuntimeException(String.format("Counter statistic %s only has its count at index 0", this.getName()));
+		}
+		return this.count.sum();
+	}
+
+	/**
+	 * Iterating a counter gives its count as the only value.
+	 */
+	@Override
+	public Iterator<Object> iterator() {
+		return Collections.singletonList((Object) this.count.sum()).iterator();
+	}
+
+	/**
+	 * @return The exact count.
+	 */
+	public long sum() {
+		return this.count.sum();
+	}
+
+	/**
+	 * Summarize the count, read without walking any list.
+	 * @return The count.
+	 */
+	public float summarize() {
+		return this.count.sum();
+	}
+
+	/**
+	 * Print out the summary value.
+	 */
+	public void printStatistic() {
+		System.out.printf("\t\tSummary value: %f%n", this.summarize());
+	}
+}
@@ -0,0 +1,181 @@
+package Skeleton;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Use this for statistics that go up and down, like "ActiveUnits", the
+ * number of units inside performAction right now. The level is one atomic
+ * word changed by increment and decrement without any lock, and next to it
+ * the gauge keeps the highest level it ever reached and the time-weighted
+ * average level over the run.
+ *
+ * The run window starts at the first change (or an explicit start) and
+ * ends when stop freezes the average, so the time a gauge sits unused
+ * before the run or waits to be printed after it does not dilute the
+ * average. Changes after stop no longer move it.
+ *
+ * The average needs no lock either: the area under the level from the
+ * start to time T is T * level(T) minus the sum of (+1 or -1) * t over
+ * every change at time t, so each change only adds its own signed time
+ * to a LongAdder.
+ */
+
+public class GaugeStatistic extends Statistic {
+	private final AtomicLong level = new AtomicLong(); // The current level
+	private final AtomicLong highWater = new AtomicLong(); // The highest level reached
+	private final LongAdder signedTimes = new LongAdder(); // Sum of amount * (nanos since start) of every change
+	private final AtomicLong startNanos = new AtomicLong(NOT_STARTED); // When the run window started
+	private volatile Double frozenAverage; // The average over the run window, null until stop
+	private static final long NOT_STARTED = Long.MIN_VALUE; // The start of a gauge whose window has not started
+
+	public GaugeStatistic(String name) {
+		super(name);
+	}
+
+	/**
+	 * Raise the level by one.
+	 */
+	public void increment() {
+		this.add(1);
+	}
+
+	/**
+	 * Lower the level by one.
+	 */
+	public void decrement() {
+		this.add(-1);
+	}
+
+	/**
+	 * Change the level by an amount.
+	 * @param amount The change, negative to lower the level.
+	 */
+	public void add(long amount) {
+		long start = this.start();
+		this.signedTimes.add(amount * (System.nanoTime() - start));
+		long now = this.level.addAndGet(amount);
+		if (now > this.highWater.get()) {
+			this.highWater.accumulateAndGet(now, Math::max);
+		}
+	}
+
+	/**
+	 * Change the level by a sample, so addValue(1) still means one more unit.
+	 * @param item The change, any Number.
+	 */
+	@Override
+	public void addValue(Object item) {
+		this.add(((Number) item).longValue());
+	}
+
+	/**
+	 * Lower the level by one, so removeValue() still means one unit less.
+	 * The gauge keeps no samples, so the index is ignored.
+	 */
+	@Override
+	public void removeValue(int index) {
+		this.decrement();
+	}
+
+	/**
+	 * A gauge keeps no samples, index 0 gives the level.
+	 * @throws RuntimeException For any other index.
+	 */
+	@Override
+	public Object getValue(int index) {
+		if (index != 0) {
+			throw new RuntimeException(String.format("Gauge statistic %s only has its level at index 0", this.getName()));
+		}
+		return this.level.get();
+	}
+
+	/**
+	 * Iterating a gauge gives its level as the only value.
+	 */
+	@Override
+	public Iterator<Object> iterator() {
+		return Collections.singletonList((Object) this.level.get()).iterator();
+	}
+
+	/**
+	 * @return The current level.
+	 */
+	public long getLevel() {
+		return this.level.get();
+	}
+
+	/**
+	 * @return The highest level the gauge ever reached.
+	 */
+	public long getHighWaterMark() {
+		return this.highWater.get();
+	}
+
+	/**
+	 * Start the run window now, unless a change or an earlier call already
+	 * started it.
+	 * @return When the run window started.
+	 */
+	public long start() {
+		long start = this.startNanos.get();
+		if (start == NOT_STARTED) {
+			this.startNanos.compareAndSet(NOT_STARTED, System.nanoTime());
+			start = this.startNanos.get();
+		}
+		return start;
+	}
+
+	/**
+	 * End the run window now and freeze the average over it, unless an
+	 * earlier call already did.
+	 */
+	public void stop() {
+		if (this.frozenAverage == null) {
+			this.frozenAverage = this.currentAverage();
+		}
+	}
+
+	/**
+	 * @return The average level, weighted by how long each level lasted,
+	 * over the run window, up to now while the run has not been stopped.
+	 */
+	public double getTimeWeightedAverage() {
+		Double frozen = this.frozenAverage;
+		return frozen != null ? frozen : this.currentAverage();
+	}
+
+	/**
+	 * @return The average level from the start of the run window until now,
+	 * the level itself when the window has not started.
+	 */
+	private double currentAverage() {
+		long start = this.startNanos.get();
+		long elapsed = System.nanoTime() - start;
+		if (start == NOT_STARTED || elapsed <= 0) {
+			return this.level.get();
+		}
+		double area = (double) elapsed * this.level.get() - this.signedTimes.sum();
+		return area / elapsed;
+	}
+
+	/**
+	 * Summarize the gauge as its current level, what the list of active
+	 * units used to sum to.
+	 * @return The current level.
+	 */
+	public float summarize() {
+		return this.level.get();
+	}
+
+	/**
+	 * Print out the summary value, then the high-water mark and average.
+	 */
+	public void printStatistic() {
+		System.out.printf("\t\tSummary value: %f%n", this.summarize());
+		System.out.printf("\t\tHigh-water mark: %d, time-weighted average: %f%n",
+			this.getHighWaterMark(), this.getTimeWeightedAverage());
+	}
+}
@@ -0,0 +1,218 @@
+package Skeleton;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Use this for latencies, like the time each action takes. Samples are
+ * nanoseconds counted into log-scaled buckets: every power of two is split
+ * into 16 buckets, so a percentile is accurate to about 6% from 1 ns up to
+ * about 18 minutes, and the histogram is the same fixed size however many
+ * samples it counts.
+ *
+ * Threads record into one of several stripes of buckets picked by their
+ * thread id, so units of the same class sharing a histogram rarely touch
+ * the same counter. Reading merges the stripes, and merge adds another
+ * histogram in the same way, so histograms from different runs combine too.
+ */
+
+public class HistogramStatistic extends Statistic {
+	private static final int SUB_BUCKET_BITS = 4; // 16 buckets per power of two
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_EXPONENT = 40; // Samples from 2^40 ns (18 minutes) up share the last bucket
+	// Values below SUB_BUCKETS have one bucket each, then 16 buckets per power of two up to MAX_EXPONENT
+	static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+	private static final int STRIPES = Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+	private final AtomicLongArray[] stripes; // The bucket counts of every stripe
+	private final AtomicLong max = new AtomicLong(); // The largest sample
+
+	public HistogramStatistic(String name) {
+		super(name);
+		this.stripes = new AtomicLongArray[STRIPES];
+		for (int i = 0; i < STRIPES; i++) {
+			this.stripes[i] = new AtomicLongArray(BUCKETS);
+		}
+	}
+
+	/**
+	 * Record a sample.
+	 * @param nanos The sample in nanoseconds, negative samples count as 0.
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		int stripe = (int) Thread.currentThread().threadId() & (STRIPES - 1);
+		this.stripes[stripe].incrementAndGet(bucketOf(value));
+		if (value > this.max.get()) {
+			this.max.accumulateAndGet(value, Math::max);
+		}
+	}
+
+	/**
+	 * Record a sample, so a histogram can be fed like any other statistic.
+	 * @param item The sample in nanoseconds, any Number.
+	 */
+	@Override
+	public void addValue(Object item) {
+		this.record(((Number) item).longValue());
+	}
+
+	/**
+	 * Add every sample of another histogram to this one.
+	 * @param other The histogram to merge in, left unchanged.
+	 */
+	public void merge(HistogramStatistic other) {
+		AtomicLongArray target = this.stripes[0];
+		for (AtomicLongArray stripe : other.stripes) {
+			for (int bucket = 0; bucket < BUCKETS; bucket++) {
+				long count = stripe.get(bucket);
+				if (count != 0) {
+					target.addAndGet(bucket, count);
+				}
+			}
+		}
+		this.max.accumulateAndGet(other.max.get(), Math::max);
+	}
+
+	/**
+	 * A histogram keeps no samples, so none can be removed.
+	 * @throws RuntimeException Always.
+	 */
+	@Override
+	public void removeValue(int index) {
+		throw new RuntimeException(String.format("Histogram statistic %s keeps no samples to remove", this.getName()));
+	}
+
+	/**
+	 * A histogram keeps no samples, so none can be read.
+	 * @throws RuntimeException Always.
+	 */
+	@Override
+	public Object getValue(int index) {
+		throw new RuntimeException(String.format("Histogram statistic %s keeps no samples to read", this.getName()));
+	}
+
+	/**
+	 * Iterating a histogram gives nothing, it keeps no samples.
+	 */
+	@Override
+	public Iterator<Object> iterator() {
+		return Collections.emptyIterator();
+	}
+
+	/**
+	 * @return The bucket counts of every stripe added together.
+	 */
+	private long[] mergedCounts() {
+		long[] counts = new long[BUCKETS];
+		for (AtomicLongArray stripe : this.stripes) {
+			for (int bucket = 0; bucket < BUCKETS; bucket++) {
+				counts[bucket] += stripe.get(bucket);
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * @return The number of samples.
+	 */
+	public long getCount() {
+		long count = 0;
+		for (long bucketCount : this.mergedCounts()) {
+			count += bucketCount;
+		}
+		return count;
+	}
+
+	/**
+	 * @return The largest sample in nanoseconds.
+	 */
+	public long getMax() {
+		return this.max.get();
+	}
+
+	/**
+	 * @param percentile The percentile, 0 to 100 (99.9 for p999).
+	 * @return The sample at the percentile in nanoseconds, the middle of its
+	 * bucket, 0 when there are no samples.
+	 */
+	public long getPercentile(double percentile) {
+		return this.percentiles(percentile)[0];
+	}
+
+	/**
+	 * @param percentiles The percentiles, 0 to 100, in ascending order.
+	 * @return The sample at each percentile in nanoseconds, read from one
+	 * merge of the stripes.
+	 */
+	public long[] percentiles(double... percentiles) {
+		long[] counts = this.mergedCounts();
+		long total = 0;
+		for (long count : counts) {
+			total += count;
+		}
+		long[] values = new long[percentiles.length];
+		if (total == 0) {
+			return values;
+		}
+		long seen = 0;
+		int bucket = -1;
+		for (int i = 0; i < percentiles.length; i++) {
+			long rank = Math.max(1, (long) Math.ceil(percentiles[i] / 100 * total));
+			while (seen < rank && bucket < BUCKETS - 1) {
+				seen += counts[++bucket];
+			}
+			long middle = (lowerBound(bucket) + lowerBound(bucket + 1) - 1) / 2;
+			values[i] = Math.min(middle, this.max.get());
+		}
+		return values;
+	}
+
+	/**
+	 * @param value A sample in nanoseconds, at least 0.
+	 * @return The bucket the sample is counted in.
+	 */
+	static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		if (exponent > MAX_EXPONENT) {
+			return BUCKETS - 1;
+		}
+		int shift = exponent - SUB_BUCKET_BITS;
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+	}
+
+	/**
+	 * @param bucket A bucket, up to BUCKETS.
+	 * @return The smallest sample counted in the bucket.
+	 */
+	static long lowerBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+	}
+
+	/**
+	 * Summarize the histogram as its median in milliseconds.
+	 * @return The p50 in milliseconds.
+	 */
+	public float summarize() {
+		return this.getPercentile(50) / 1e6f;
+	}
+
+	/**
+	 * Print out the summary value, then the count and the tail percentiles in milliseconds.
+	 */
+	public void printStatistic() {
+		long[] values = this.percentiles(50, 99, 99.9);
+		System.out.printf("\t\tSummary value: %f%n", values[0] / 1e6f);
+		System.out.printf("\t\tCount: %d, p50: %.3f ms, p99: %.3f ms, p999: %.3f ms, max: %.3f ms%n",
+			this.getCount(), values[0] / 1e6, values[1] / 1e6, values[2] / 1e6, this.getMax() / 1e6);
+	}
+}
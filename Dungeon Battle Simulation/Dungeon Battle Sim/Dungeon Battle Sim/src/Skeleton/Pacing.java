@@ -0,0 +1,215 @@
+package Skeleton;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The pacing policy every sleep in the simulation goes through, set with the
+ * "Pacing" input:
+ * 		RealTime (default) sleeps for the requested time.
+ * 		Scaled sleeps for the requested time multiplied by "PacingScale"
+ * 		(0.1 runs ten times faster than real time).
+ * 		None never sleeps, the clock jumps forward by the requested time instead.
+ *
+ * Each Skeleton.Unit has its own Pacing, so its clock, and the time it
+ * spent asleep, belong to that unit alone.
+ *
+ * The clock counts nanoseconds from System.nanoTime, so waits shorter than
+ * a millisecond are kept instead of rounding to 0, and sleeps park until
+ * their deadline rather than for a rounded duration.
+ *
+ * Latency is always measured in real time, so realNanosOf maps a time on
+ * the clock back to the real time the clock reached it. With None the
+ * clock only moves in sleeps, so each sleep remembers the real time it
+ * moved the clock, and a slot the clock passed is due from the sleep that
+ * passed it.
+ */
+public class Pacing {
+	/**
+	 * The pacing modes, parsed once so no call compares strings.
+	 */
+	private enum Mode {REAL_TIME, SCALED, NONE}
+
+	private final Mode mode;
+	private final double scale;
+	// The clock of the None mode, only moved by sleep
+	private final AtomicLong virtualNanos = new AtomicLong();
+	// The real time the clock of the other modes counts from
+	private final long origin = System.nanoTime();
+	// Real time spent asleep in this pacing so far
+	private final AtomicLong pacedNanos = new AtomicLong();
+	// None only: the clock after each of the latest sleeps, oldest first from advanceHead, and the real time of each
+	private final long[] advanceClocks = new long[ADVANCES];
+	private final long[] advanceReals = new long[ADVANCES];
+	private int advanceHead; // The oldest remembered sleep
+	private int advanceCount; // The number of remembered sleeps
+	// The most sleeps remembered, a slot further behind than this is due from the oldest one
+	private static final int ADVANCES = 64;
+
+	/**
+	 * @param input The simulation input with the Pacing and PacingScale values.
+	 * @throws RuntimeException When the mode is unknown or the scale is not
+	 * 		   positive. This should fail the entire simulation.
+	 */
+	public Pacing(SimulationInput input) {
+		SimulationConfig config = input.getConfig();
+		String modeName = config.getString("Pacing", "RealTime");
+		switch (modeName) {
+			case "RealTime":
+				this.mode = Mode.REAL_TIME;
+				this.scale = 1;
+				break;
+			case "None":
+				this.mode = Mode.NONE;
+				this.scale = 1;
+				break;
+			case "Scaled":
+				this.mode = Mode.SCALED;
+				this.scale = config.getDouble("PacingScale", 1);
+				if (this.scale <= 0) {
+					throw new RuntimeException(String.format("PacingScale must be positive, got %s", this.scale));
+				}
+				break;
+			default:
+				throw new RuntimeException(String.format("Unknown Pacing: %s", modeName));
+		}
+	}
+
+	/**
+	 * The simulation clock in nanoseconds, use it in place of
+	 * System.nanoTime so scaled and unpaced runs keep their schedule.
+	 * Only differences between readings of the same Pacing mean anything.
+	 */
+	public long nanoTime() {
+		if (this.mode == Mode.NONE) {
+			return this.virtualNanos.get();
+		}
+		return (long) ((System.nanoTime() - this.origin) / this.scale);
+	}
+
+	/**
+	 * The simulation clock in milliseconds.
+	 */
+	public long currentTimeMillis() {
+		return this.nanoTime() / 1_000_000;
+	}
+
+	/**
+	 * Sleep for the given simulation time under this policy.
+	 *
+	 * @param millis The simulation time to sleep for.
+	 */
+	public void sleep(long millis) throws InterruptedException {
+		// Saturate so an endless wait cannot wrap around
+		this.sleepNanos(millis > Long.MAX_VALUE / 1_000_000 ? Long.MAX_VALUE : millis * 1_000_000);
+	}
+
+	/**
+	 * Sleep until the simulation clock reaches the given time.
+	 *
+	 * @param deadline The simulation time in nanoseconds to wake at.
+	 */
+	public void sleepUntil(long deadline) throws InterruptedException {
+		this.sleepNanos(deadline - this.nanoTime());
+	}
+
+	/**
+	 * Sleep for the given simulation time in nanoseconds under this policy.
+	 *
+	 * @param nanos The simulation time to sleep for.
+	 */
+	public void sleepNanos(long nanos) throws InterruptedException {
+		if (nanos <= 0) {
+			return;
+		}
+		if (this.mode == Mode.NONE) {
+			// Saturate so an endless wait (0 actions/second) cannot wrap the clock around
+			long clock = this.virtualNanos.updateAndGet(now -> now > Long.MAX_VALUE - nanos ? Long.MAX_VALUE : now + nanos);
+			this.rememberAdvance(clock, System.nanoTime());
+			return;
+		}
+		long start = System.nanoTime();
+		// parkNanos can return early, so park again until the deadline has passed
+		long deadline = start + (long) Math.min(Long.MAX_VALUE / 2.0, nanos * this.scale);
+		try {
+			for (long left = deadline - start; left > 0; left = deadline - System.nanoTime()) {
+				LockSupport.parkNanos(left);
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+			}
+		} finally {
+			this.pacedNanos.addAndGet(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Account for a wait that a scheduler carries out instead of a sleep.
+	 * With None the clock jumps forward as in sleep and there is nothing to
+	 * wait for, otherwise the clock moves on its own while the scheduler waits.
+	 *
+	 * @param nanos The simulation time to wait for in nanoseconds.
+	 * @return The real time to wait for in nanoseconds.
+	 */
+	public long schedule(long nanos) throws InterruptedException {
+		if (nanos <= 0) {
+			return 0;
+		}
+		if (this.mode == Mode.NONE) {
+			this.sleepNanos(nanos);
+			return 0;
+		}
+		return (long) Math.min(Long.MAX_VALUE / 2.0, nanos * this.scale);
+	}
+
+	/**
+	 * The real time the clock reached a given time, for measuring how long
+	 * after its slot became due an action started or finished.
+	 *
+	 * @param clock A time on the clock in nanoseconds.
+	 * @return The System.nanoTime at which the clock reached it. With None,
+	 * the real time of the sleep that moved the clock past it, or now when
+	 * no remembered sleep did.
+	 */
+	public long realNanosOf(long clock) {
+		if (this.mode != Mode.NONE) {
+			return this.origin + (long) (clock * this.scale);
+		}
+		synchronized (this.advanceClocks) {
+			// Sleeps that stopped short of this time cannot be what later, larger times are due from either
+			while (this.advanceCount > 1 && this.advanceClocks[this.advanceHead] < clock) {
+				this.advanceHead = (this.advanceHead + 1) % ADVANCES;
+				this.advanceCount--;
+			}
+			if (this.advanceCount == 0 || this.advanceClocks[this.advanceHead] < clock) {
+				return System.nanoTime();
+			}
+			return this.advanceReals[this.advanceHead];
+		}
+	}
+
+	/**
+	 * Remember a sleep of the None mode, dropping the oldest remembered one
+	 * when there is no room.
+	 *
+	 * @param clock The clock after the sleep.
+	 * @param real The real time of the sleep.
+	 */
+	private void rememberAdvance(long clock, long real) {
+		synchronized (this.advanceClocks) {
+			if (this.advanceCount == ADVANCES) {
+				this.advanceHead = (this.advanceHead + 1) % ADVANCES;
+				this.advanceCount--;
+			}
+			int tail = (this.advanceHead + this.advanceCount) % ADVANCES;
+			this.advanceClocks[tail] = clock;
+			this.advanceReals[tail] = real;
+			this.advanceCount++;
+		}
+	}
+
+	/** Returns the real time in nanoseconds spent asleep in this pacing so far. **/
+	public long getPacedNanos() {
+		return this.pacedNanos.get();
+	}
+}
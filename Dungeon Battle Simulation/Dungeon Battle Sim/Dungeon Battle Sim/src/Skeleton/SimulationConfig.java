@@ -0,0 +1,233 @@
+package Skeleton;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable, compiled view of a Skeleton.SimulationInput.
+ *
+ * The key/value pairings are indexed by key once, so a lookup is one hash
+ * probe instead of a scan of every pairing, and a value is parsed the first
+ * time it is read as a number and cached after that. Build the input with
+ * addInput, then read it through the snapshot from getConfig, which stays
+ * the same however the input changes later.
+ *
+ * When a key was added more than once the first pairing wins, as it does
+ * for the SimulationInput getters.
+ */
+public final class SimulationConfig {
+	// The values of every key, in the order the keys were first added
+	private final Map<String, Value> values;
+
+	/**
+	 * @param pairings The key/value pairings, the key first in each.
+	 */
+	SimulationConfig(List<? extends List<String>> pairings) {
+		LinkedHashMap<String, Value> values = new LinkedHashMap<String, Value>();
+		for (List<String> pairing : pairings) {
+			values.putIfAbsent(pairing.get(0), new Value(pairing.get(0), pairing.subList(1, pairing.size())));
+		}
+		this.values = Collections.unmodifiableMap(values);
+	}
+
+	/**
+	 * Check that every required key is present with at least one value, so
+	 * a missing key fails the simulation before any unit starts.
+	 *
+	 * @param keys The keys that must be present.
+	 * @return This config.
+	 * @throws RuntimeException Listing every missing key. This should fail
+	 * 		   the entire simulation.
+	 */
+	public SimulationConfig require(String... keys) {
+		List<String> missing = new ArrayList<String>();
+		for (String key : keys) {
+			Value value = this.values.get(key);
+			if (value == null || value.values.isEmpty()) {
+				missing.add(key);
+			}
+		}
+		if (!missing.isEmpty()) {
+			throw new RuntimeException(String.format("Missing required input keys: %s", String.join(", ", missing)));
+		}
+		return this;
+	}
+
+	/**
+	 * @param key The key to search for.
+	 * @return Whether the key was added.
+	 */
+	public boolean has(String key) {
+		return this.values.containsKey(key);
+	}
+
+	/**
+	 * @return Every key, in the order they were first added.
+	 */
+	public Set<String> keys() {
+		return this.values.keySet();
+	}
+
+	/**
+	 * @param key The key to search for.
+	 * @return Every value of the key, unmodifiable.
+	 * @throws RuntimeException When the key is missing.
+	 */
+	public List<String> getList(String key) {
+		return this.value(key).values;
+	}
+
+	/**
+	 * @param key The key to search for.
+	 * @return The first value of the key.
+	 * @throws RuntimeException When the key is missing.
+	 */
+	public String getString(String key) {
+		return this.value(key).first();
+	}
+
+	/**
+	 * @param key The key to search for.
+	 * @param defaultValue The value returned when the key is missing.
+	 * @return The first value of the key, or the default.
+	 */
+	public String getString(String key, String defaultValue) {
+		return this.has(key) ? this.getString(key) : defaultValue;
+	}
+
+	/**
+	 * @param key The key to search for.
+	 * @return The first value of the key as an int.
+	 * @throws RuntimeException When the key is missing or not an int.
+	 */
+	public int getInt(String key) {
+		Value value = this.value(key);
+		if (value.intValue == null) {
+			try {
+				value.intValue = Integer.valueOf(value.first());
+			} catch (NumberFormatException e) {
+				throw value.notA("an integer");
+			}
+		}
+		return value.intValue;
+	}
+
+	/**
+	 * @param key The key to search for.
+	 * @param defaultValue The value returned when the key is missing.
+	 * @return The first value of the key as an int, or the default.
+	 */
+	public int getInt(String key, int defaultValue) {
+		return this.has(key) ? this.getInt(key) : defaultValue;
+	}
+
+	/**
+	 * @param key The key to search for.
+	 * @return The first value of the key as a long.
+	 * @throws RuntimeException When the key is missing or not a long.
+	 */
+	public long getLong(String key) {
+		Value value = this.value(key);
+		if (value.longValue == null) {
+			try {
+				value.longValue = Long.valueOf(value.first());
+			} catch (NumberFormatException e) {
+				throw value.notA("a long");
+			}
+		}
+		return value.longValue;
+	}
+
+	/**
+	 * @param key The key to search for.
+	 * @param defaultValue The value returned when the key is missing.
+	 * @return The first value of the key as a long, or the default.
+	 */
+	public long getLong(String key, long defaultValue) {
+		return this.has(key) ? this.getLong(key) : defaultValue;
+	}
+
+	/**
+	 * @param key The key to search for.
+	 * @return The first value of the key as a double.
+	 * @throws RuntimeException When the key is missing or not a number.
+	 */
+	public double getDouble(String key) {
+		Value value = this.value(key);
+		if (value.doubleValue == null) {
+			try {
+				value.doubleValue = Double.valueOf(value.first());
+			} catch (NumberFormatException e) {
+				throw value.notA("a number");
+			}
+		}
+		return value.doubleValue;
+	}
+
+	/**
+	 * @param key The key to search for.
+	 * @param defaultValue The value returned when the key is missing.
+	 * @return The first value of the key as a double, or the default.
+	 */
+	public double getDouble(String key, double defaultValue) {
+		return this.has(key) ? this.getDouble(key) : defaultValue;
+	}
+
+	/**
+	 * @param key The key to search for.
+	 * @return The values of the key.
+	 * @throws RuntimeException Throws this failure when we can't find the
+	 * 		   input key. This should fail the entire simulation.
+	 */
+	private Value value(String key) {
+		Value value = this.values.get(key);
+		if (value == null) {
+			throw new RuntimeException(String.format("Cannot find input key: %s", key));
+		}
+		return value;
+	}
+
+	/**
+	 * The values of one key, with the first value cached once parsed. Two
+	 * threads reading it at once may both parse it, to the same result.
+	 */
+	private static final class Value {
+		final String key;
+		final List<String> values;
+		volatile Integer intValue;
+		volatile Long longValue;
+		volatile Double doubleValue;
+
+		/**
+		 * @param key The key of the values.
+		 * @param values The values, copied.
+		 */
+		Value(String key, List<String> values) {
+			this.key = key;
+			this.values = List.copyOf(values);
+		}
+
+		/**
+		 * @return The first value.
+		 * @throws RuntimeException When the key has no values.
+		 */
+		String first() {
+			if (this.values.isEmpty()) {
+				throw new RuntimeException(String.format("Input key %s has no value", this.key));
+			}
+			return this.values.get(0);
+		}
+
+		/**
+		 * @param type The type the value should have been.
+		 * @return The failure for a value that does not parse as the type.
+		 */
+		RuntimeException notA(String type) {
+			return new RuntimeException(String.format("Input key %s is not %s: %s", this.key, type, this.first()));
+		}
+	}
+}
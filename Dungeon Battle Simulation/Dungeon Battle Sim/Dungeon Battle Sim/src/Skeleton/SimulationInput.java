@@ -9,10 +9,19 @@ import java.util.List;
 
 /**
  * This class helps you retrieve values from the given input.
+ *
+ * It is the builder of the input: add every key/value pairing with
+ * addInput, and the getters read them through a Skeleton.SimulationConfig
+ * compiled from the pairings on first use, so a lookup is a hash probe and
+ * a number is parsed once. Adding a pairing compiles a new config, change
+ * the input through addInput or setInputArray rather than through the
+ * array passed in.
  * */
 public class SimulationInput {
 	// The inner implementation of the input
 	private ArrayList<ArrayList<String>> input;
+	// The compiled view of the input, null until read after a change
+	private volatile SimulationConfig config;
 
 	public SimulationInput() {
 		this(new ArrayList<ArrayList<String>>());
@@ -34,6 +43,7 @@ public class SimulationInput {
 	 * */
 	public void setInputArray(ArrayList<ArrayList<String>> input) {
 		this.input = input;
+		this.config = null;
 	}
 
 	/**
@@ -45,6 +55,20 @@ public class SimulationInput {
 	public void addInput(String key, Collection<String> value) {
 		this.input.add(new ArrayList<String>(List.of(key)));
 		this.input.get(this.input.size()-1).addAll(value);
+		this.config = null;
+	}
+
+	/**
+	 * Return the immutable, compiled view of the input as it is now. Later
+	 * pairings are not in it, call again after adding them.
+	 * */
+	public SimulationConfig getConfig() {
+		SimulationConfig config = this.config;
+		if (config == null) {
+			config = new SimulationConfig(this.input);
+			this.config = config;
+		}
+		return config;
 	}
 
 	/**
@@ -53,33 +77,69 @@ public class SimulationInput {
 	 * @param key The key to search for.
 	 * */
 	public Integer getIntegerInput(String key) {
-		return Integer.valueOf(this.getInput(key).get(0));
+		return this.getConfig().getInt(key);
 	}
 
 	/**
-	 * Return the values in the input.
+	 * Return the first value in the input converted to an Integer,
+	 * or the default when the key was never added.
 	 * 
 	 * @param key The key to search for.
+	 * @param defaultValue The value returned when the key is missing.
 	 * */
-	public ArrayList<String> getInput(String key) {
-		return new ArrayList<String>(this.findKey(key));
+	public Integer getIntegerInput(String key, int defaultValue) {
+		return this.getConfig().getInt(key, defaultValue);
+	}
+
+	/**
+	 * Return the first value in the input converted to a Double.
+	 * 
+	 * @param key The key to search for.
+	 * */
+	public Double getDoubleInput(String key) {
+		return this.getConfig().getDouble(key);
+	}
+
+	/**
+	 * Return the first value in the input converted to a Double,
+	 * or the default when the key was never added.
+	 *
+	 * @param key The key to search for.
+	 * @param defaultValue The value returned when the key is missing.
+	 * */
+	public Double getDoubleInput(String key, double defaultValue) {
+		return this.getConfig().getDouble(key, defaultValue);
 	}
 
 	/**
-	 * Searches for a given key in the input array.
+	 * Return the first value in the input, or the default when the key
+	 * was never added.
 	 * 
-	 * @param key The input key to search for (the first value).
-	 * @return An array of values found at the key.
+	 * @param key The key to search for.
+	 * @param defaultValue The value returned when the key is missing.
+	 * */
+	public String getStringInput(String key, String defaultValue) {
+		return this.getConfig().getString(key, defaultValue);
+	}
+
+	/**
+	 * Check whether a key has been added to the input.
+	 * 
+	 * @param key The key to search for.
+	 * */
+	public boolean hasInput(String key) {
+		return this.getConfig().has(key);
+	}
+
+	/**
+	 * Return the values in the input.
+	 * 
+	 * @param key The key to search for.
 	 * @throws RuntimeException Throws this failure when we can't
 	 * 		   find the input key. This should fail the entire
 	 * 		   simulation.
-	 **/
-	private ArrayList<String> findKey(String key) throws RuntimeException {
-		for (ArrayList<String> pairing : input) {
-			if (pairing.get(0).equals(key)) {
-				return new ArrayList<String>(pairing.subList(1, pairing.size()));
-			}
-		}
-		throw new RuntimeException(String.format("Cannot find input key: %s", key));
+	 * */
+	public ArrayList<String> getInput(String key) {
+		return new ArrayList<String>(this.getConfig().getList(key));
 	}
 }
@@ -3,6 +3,7 @@ package Skeleton;
 import javax.naming.event.ObjectChangeListener;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This class is used to represent a Skeleton.Statistic. For an example,
@@ -20,6 +21,8 @@ import java.util.Iterator;
 public abstract class Statistic implements Iterable<Object> {
 	protected ArrayList<Object> values;
 	private final String name;
+	// A lock rather than synchronized, so virtual threads waiting on it park instead of pinning their carrier
+	private final ReentrantLock lock = new ReentrantLock();
 
 	public Statistic(String name) {
 		this.name = name;
@@ -36,14 +39,24 @@ public abstract class Statistic implements Iterable<Object> {
 	}
 
 	// Use these methods to add/remove/get values
-	public synchronized void addValue(Object item) {
-		this.values.add(item);
+	public void addValue(Object item) {
+		this.lock.lock();
+		try {
+			this.values.add(item);
+		} finally {
+			this.lock.unlock();
+		}
 	}
-	public synchronized void removeValue() {
+	public void removeValue() {
 		this.removeValue(0);
 	}
-	public synchronized void removeValue(int index) {
-		this.values.remove(index);
+	public void removeValue(int index) {
+		this.lock.lock();
+		try {
+			this.values.remove(index);
+		} finally {
+			this.lock.unlock();
+		}
 	}
 	public Object getValue(int index) {
 		return this.values.get(index);
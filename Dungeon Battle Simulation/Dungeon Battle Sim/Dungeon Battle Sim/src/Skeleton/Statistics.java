@@ -1,6 +1,8 @@
 package Skeleton;
 
 import java.util.HashMap;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * This class contains the set of statistics for an object in the simulation. These sets are
@@ -31,6 +33,17 @@ public class Statistics {
 		return this.allStats.get(name);
 	}
 
+	/**
+	 * Get the statistic with the given name, creating it only when it does not
+	 * exist yet, for large statistics (like HistogramStatistic) shared by many units.
+	 * @param name The name of the statistic.
+	 * @param factory Creates the statistic from its name.
+	 * @return The statistic with the given name.
+	 */
+	public Statistic getOrAddStatistic(String name, Function<String, Statistic> factory) {
+		return this.allStats.computeIfAbsent(name, factory);
+	}
+
 	/**
 	 * Get the statistics associated with the given name.
 	 * @param name The name of the statistic.
@@ -40,6 +53,13 @@ public class Statistics {
 		return this.allStats.get(name);
 	}
 
+	/**
+	 * @return The names of every statistic in the set.
+	 */
+	public Set<String> getStatisticNames() {
+		return this.allStats.keySet();
+	}
+
 	/**
 	 * Print out the final results from the simulation.
 	 * */
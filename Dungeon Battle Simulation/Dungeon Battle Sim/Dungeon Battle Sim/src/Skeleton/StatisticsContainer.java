@@ -1,6 +1,7 @@
 package Skeleton;
 
 import java.util.LinkedHashMap;
+import java.util.Set;
 
 /**
  * Singleton object for all statistics. At this level, we have one set of Skeleton.Statistics
@@ -55,6 +56,25 @@ public class StatisticsContainer {
 		return StatisticsContainer.stats;
 	}
 
+	/**
+	 * Replaces the shared statistics object with an empty one, so a new
+	 * simulation does not report the units of the last.
+	 * @return The new statistics object.
+	 * */
+	public static StatisticsContainer reset(SimulationInput si) {
+		StatisticsContainer.stats = new StatisticsContainer(si);
+		return StatisticsContainer.stats;
+	}
+
+	/**
+	 * Creates a statistics object that is not shared, for simulations
+	 * running side by side.
+	 * @return A new statistics object.
+	 * */
+	public static StatisticsContainer newInstance(SimulationInput si) {
+		return new StatisticsContainer(si);
+	}
+
 	/**
 	 * Add a statistic component to the hash table.
 	 * @param component Name of the server.
@@ -65,6 +85,26 @@ public class StatisticsContainer {
 	}
 
 
+	/**
+	 * Add a statistic component that was filled before it was added.
+	 * @param component Name of the server.
+	 * @param statistics The statistics of the component.
+	 */
+	public Statistics addComponent (String component, Statistics statistics){
+		allStatistics.put(component, statistics);
+		return statistics;
+	}
+
+
+	/**
+	 * Get the statistics of a component shared by several units, adding
+	 * it when it does not exist yet instead of replacing it.
+	 * @param component Name of the shared component.
+	 */
+	public Statistics getOrAddComponent (String component){
+		return this.allStatistics.computeIfAbsent(component, name -> new Statistics(this.input));
+	}
+
 	/**
 	 * Get the server statistics for the given server name.
 	 * @param component Name of the server.
@@ -75,6 +115,28 @@ public class StatisticsContainer {
 	}
 
 
+	/**
+	 * Get the names of every component, in the order they were added.
+	 * @return The component names.
+	 */
+	public Set<String> getComponentNames (){
+		return this.allStatistics.keySet();
+	}
+
+	/**
+	 * End the run window of every gauge, so their time-weighted averages
+	 * cover the run and not the time until they are printed.
+	 */
+	public void stopGauges (){
+		for (Statistics statistics: this.allStatistics.values()){
+			for (String name: statistics.getStatisticNames()){
+				if (statistics.getStatistic(name) instanceof GaugeStatistic gauge){
+					gauge.stop();
+				}
+			}
+		}
+	}
+
 	/**
 	 * Print the statistics container.
 	 */
@@ -0,0 +1,212 @@
+package Skeleton;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Use this for statistics where the distribution matters, like the damage
+ * of each hit or the time of each action. No sample is kept: every sample
+ * updates the count, sum, mean, variance, min and max in place with
+ * Welford's online algorithm, which stays accurate for millions of
+ * samples, so the statistic is the same small object however long the run.
+ * Two summaries (from different units, threads or runs) merge into one
+ * exactly as if every sample had been added to a single summary.
+ */
+
+public class SummaryStatistic extends Statistic {
+	private long count; // Number of samples
+	private double sum; // Sum of the samples, summarize gives it like the worker statistics do
+	private double mean; // Running mean
+	private double m2; // Running sum of squared distances from the mean
+	private double min = Double.POSITIVE_INFINITY; // Smallest sample
+	private double max = Double.NEGATIVE_INFINITY; // Largest sample
+	// A lock rather than synchronized, so virtual threads waiting on it park instead of pinning their carrier
+	private final ReentrantLock lock = new ReentrantLock();
+
+	public SummaryStatistic(String name) {
+		super(name);
+	}
+
+	/**
+	 * Add a sample to the summary.
+	 * @param value The sample.
+	 */
+	public void add(double value) {
+		this.lock.lock();
+		try {
+			this.count++;
+			this.sum += value;
+			double delta = value - this.mean;
+			this.mean += delta / this.count;
+			this.m2 += delta * (value - this.mean);
+			this.min = Math.min(this.min, value);
+			this.max = Math.max(this.max, value);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Add a sample to the summary, so a summary can replace a worker
+	 * statistic without changing the code adding to it.
+	 * @param item The sample, any Number.
+	 */
+	@Override
+	public void addValue(Object item) {
+		this.add(((Number) item).doubleValue());
+	}
+
+	/**
+	 * Merge another summary into this one, the result is the summary of
+	 * both sets of samples (Chan et al.'s parallel variance update).
+	 * @param other The summary to merge in, left unchanged.
+	 */
+	public void merge(SummaryStatistic other) {
+		// Copy the other summary first, so the two locks are never held together
+		long otherCount;
+		double otherSum, otherMean, otherM2, otherMin, otherMax;
+		other.lock.lock();
+		try {
+			otherCount = other.count;
+			otherSum = other.sum;
+			otherMean = other.mean;
+			otherM2 = other.m2;
+			otherMin = other.min;
+			otherMax = other.max;
+		} finally {
+			other.lock.unlock();
+		}
+		if (otherCount == 0) {
+			return;
+		}
+		this.lock.lock();
+		try {
+			long total = this.count + otherCount;
+			double delta = otherMean - this.mean;
+			this.mean += delta * otherCount / total;
+			this.m2 += otherM2 + delta * delta * ((double) this.count * otherCount / total);
+			this.count = total;
+			this.sum += otherSum;
+			this.min = Math.min(this.min, otherMin);
+			this.max = Math.max(this.max, otherMax);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * A summary keeps no samples, so none can be removed.
+	 * @throws RuntimeException Always.
+	 */
+	@Override
+	public void removeValue(int index) {
+		throw new RuntimeException(String.format("Summary statistic %s keeps no samples to remove", this.getName()));
+	}
+
+	/**
+	 * A summary keeps no samples, so none can be read.
+	 * @throws RuntimeException Always.
+	 */
+	@Override
+	public Object getValue(int index) {
+		throw new RuntimeException(String.format("Summary statistic %s keeps no samples to read", this.getName()));
+	}
+
+	/**
+	 * Iterating a summary gives nothing, it keeps no samples.
+	 */
+	@Override
+	public Iterator<Object> iterator() {
+		return Collections.emptyIterator();
+	}
+
+	/**
+	 * @return The number of samples.
+	 */
+	public long getCount() {
+		this.lock.lock();
+		try {
+			return this.count;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return The mean of the samples, 0 when there are none.
+	 */
+	public double getMean() {
+		this.lock.lock();
+		try {
+			return this.mean;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return The sample variance, 0 with fewer than two samples.
+	 */
+	public double getVariance() {
+		this.lock.lock();
+		try {
+			return this.count < 2 ? 0 : this.m2 / (this.count - 1);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return The sample standard deviation, 0 with fewer than two samples.
+	 */
+	public double getStandardDeviation() {
+		return Math.sqrt(this.getVariance());
+	}
+
+	/**
+	 * @return The smallest sample, NaN when there are none.
+	 */
+	public double getMin() {
+		this.lock.lock();
+		try {
+			return this.count == 0 ? Double.NaN : this.min;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return The largest sample, NaN when there are none.
+	 */
+	public double getMax() {
+		this.lock.lock();
+		try {
+			return this.count == 0 ? Double.NaN : this.max;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Summarize the samples as their sum, like the worker statistics.
+	 * @return The sum of the samples.
+	 */
+	public float summarize() {
+		this.lock.lock();
+		try {
+			return (float) this.sum;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Print out the summary value, then the distribution.
+	 */
+	public void printStatistic() {
+		System.out.printf("\t\tSummary value: %f%n", this.summarize());
+		System.out.printf("\t\tCount: %d, mean: %f, standard deviation: %f, min: %f, max: %f%n",
+			this.getCount(), this.getMean(), this.getStandardDeviation(), this.getMin(), this.getMax());
+	}
+}
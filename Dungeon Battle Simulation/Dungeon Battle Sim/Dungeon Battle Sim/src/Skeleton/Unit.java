@@ -1,7 +1,6 @@
 package Skeleton;
 
 import java.lang.Math;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Abstract class that represents a unit in the simulation.
@@ -13,6 +12,18 @@ public abstract class Unit implements Runnable {
 	private String name; // Name of the unit
 	private SimulationInput input; // The input settings
 	private Statistics stats;
+	private final StatisticsContainer container; // The container the unit's statistics are registered in
+	private volatile long actionsPerformed; // Actions run so far, compared with the schedule to measure drift
+	private final Pacing pacing; // The clock and sleeps of this unit
+	private final GaugeStatistic activeUnits; // This unit's ActiveUnits gauge
+	private final GaugeStatistic simulationActiveUnits; // The ActiveUnits gauge shared by every unit of the container
+	private final Statistic workTime; // The WorkTime summary, read once per action
+	private final HistogramStatistic serviceTime; // Time each action worked, shared by the units of this class
+	private final HistogramStatistic lockWait; // Time each action waited on semaphores, shared by the units of this class
+	private final HistogramStatistic deadlineLag; // Real time from due to start of each action, shared by the units of this class
+	private final HistogramStatistic responseTime; // Real time from due to end of each action, shared by the units of this class
+	private final CounterStatistic skippedSlots; // Slots this unit dropped under MissedSlots Skip
+	private long actionLockWait; // Nanoseconds the current action has waited on semaphores so far
 
 	public Unit(SimulationInput input) {
 		this("DefaultUnitName", input);
@@ -25,20 +36,104 @@ public abstract class Unit implements Runnable {
 	 * @param input The input settings.
 	 * */
 	public Unit(String name, SimulationInput input) {
+		this(name, input, StatisticsContainer.getInstance());
+	}
+
+	/**
+	 * Constructor for a Skeleton.Unit that reports to its own container, used
+	 * when several simulations run side by side.
+	 * 
+	 * @param name The name of the unit.
+	 * @param input The input settings.
+	 * @param container The statistics container of the unit's simulation.
+	 * */
+	public Unit(String name, SimulationInput input, StatisticsContainer container) {
+		this(name, input, container, true);
+	}
+
+	/**
+	 * Constructor for a Skeleton.Unit that may leave its own statistics out
+	 * of the container until it actually joins the simulation, so a unit
+	 * that never does is not reported. The shared components are still
+	 * added.
+	 * 
+	 * @param name The name of the unit.
+	 * @param input The input settings.
+	 * @param container The statistics container of the unit's simulation.
+	 * @param register Whether to register the unit's statistics now, else
+	 * 		  registerStatistics does it later.
+	 * */
+	protected Unit(String name, SimulationInput input, StatisticsContainer container, boolean register) {
 		this.name = name;
 		this.input = input;
+		this.pacing = new Pacing(input);
+		this.container = container;
 
 		// Get the statistics object for this Skeleton.Unit
-		this.stats = StatisticsContainer.getInstance().addComponent(this.getName());
+		this.stats = new Statistics(input);
+		if (register) {
+			this.registerStatistics();
+		}
+
+		// Add a gauge for the number of active units performing an action, one for this unit and one
+		// shared by all units under the "Simulation" component, which shows how many run at once
+		this.activeUnits = (GaugeStatistic) this.stats.addStatistic("ActiveUnits", new GaugeStatistic("ActiveUnits"));
+		this.simulationActiveUnits = (GaugeStatistic) container.getOrAddComponent("Simulation")
+			.addStatistic("ActiveUnits", new GaugeStatistic("ActiveUnits"));
+
+		// Add statistics splitting each action's time (ms) into pacing sleeps and real work,
+		// summaries so a long run does not keep one sample per action
+		this.stats.addStatistic("PacingTime", new SummaryStatistic("PacingTime"));
+		this.workTime = this.stats.addStatistic("WorkTime", new SummaryStatistic("WorkTime"));
+		this.skippedSlots = (CounterStatistic) this.stats.addStatistic("SkippedSlots", new CounterStatistic("SkippedSlots"));
 
-		// Add a statistic for the number of active units performing an action
-		this.stats.addStatistic("ActiveUnits", new WorkerStatistic("ActiveUnits"));
+		// Add latency histograms (ns) shared by every unit of the same class under the "<Class> units"
+		// component, fixed size however many units and actions there are, so the tail is reported per class
+		Statistics classStats = container.getOrAddComponent(this.getClass().getSimpleName() + " units");
+		this.serviceTime = (HistogramStatistic) classStats.getOrAddStatistic("ServiceTime", HistogramStatistic::new);
+		this.lockWait = (HistogramStatistic) classStats.getOrAddStatistic("LockWait", HistogramStatistic::new);
+		this.deadlineLag = (HistogramStatistic) classStats.getOrAddStatistic("DeadlineLag", HistogramStatistic::new);
+		this.responseTime = (HistogramStatistic) classStats.getOrAddStatistic("ResponseTime", HistogramStatistic::new);
 	}
 
 	public Statistics getStats() {
 		return this.stats;
 	}
 
+	/**
+	 * Add the unit's statistics to its container under the unit's name.
+	 */
+	public void registerStatistics() {
+		this.container.addComponent(this.getName(), this.stats);
+	}
+
+	/**
+	 * Mark the unit as inside an action, raising its ActiveUnits gauge and the shared one.
+	 */
+	public void beginAction() {
+		this.activeUnits.increment();
+		this.simulationActiveUnits.increment();
+	}
+
+	/**
+	 * Mark the unit as done with its action, lowering its ActiveUnits gauge and the shared one.
+	 */
+	public void endAction() {
+		this.activeUnits.decrement();
+		this.simulationActiveUnits.decrement();
+	}
+
+	/**
+	 * Add time the current action spent blocked on a semaphore, recorded in
+	 * the LockWait histogram when the action ends. Only the unit's own thread
+	 * should call this.
+	 *
+	 * @param nanos The time waited in nanoseconds.
+	 */
+	public void addLockWait(long nanos) {
+		this.actionLockWait += nanos;
+	}
+
 	/**
 	 * Has your unit perform a single action. For example:
 	 * 		Minning some ore.
@@ -70,6 +165,16 @@ public abstract class Unit implements Runnable {
 	 * */
 	public abstract void submitStatistics();
 
+	/** Returns the number of actions the run method has performed. **/
+	public long getActionsPerformed() {
+		return this.actionsPerformed;
+	}
+
+	/** Returns the Skeleton.Pacing every sleep of this unit goes through. **/
+	public Pacing getPacing() {
+		return this.pacing;
+	}
+
 	/** Returns the Skeleton.SimulationInput **/
 	public SimulationInput getSimInput() {
 		return this.input;
@@ -90,12 +195,18 @@ public abstract class Unit implements Runnable {
 	 * This is the method which runs the Skeleton.Unit for `Time` seconds (specified) in
 	 * the input and performs `ActionsPerSecond` actions/second during this time.
 	 * 
-	 * The run method also slighlty handles drift in timing. This means that the
-	 * amount of time your methods take will impact the amount of time the Skeleton.Unit
-	 * waits until it attempts to perform an action again.
+	 * The run method handles drift in timing. Every action is due at a fixed
+	 * slot of its Skeleton.ActionSchedule, so the amount of time your methods
+	 * take shortens the wait before the next action instead of delaying every
+	 * later one. ActionsPerSecond may be fractional or above 1000, and 0 runs
+	 * no actions at all.
+	 * 
+	 * Time is kept by the unit's Skeleton.Pacing, so with Pacing set to None
+	 * the same number of actions run back to back without sleeping.
 	 * 
 	 * If you override this method in a subclass, ensure that all of the
-	 * above is still implemented.
+	 * above is still implemented. The Skeleton.UnitScheduler does not call
+	 * run, it calls performTimedAction on the same schedule instead.
 	 * 
 	 * The run method performs the following:
 	 * 		Add a worker/unit to the stats object.
@@ -106,52 +217,94 @@ public abstract class Unit implements Runnable {
 	 * 
 	 * */
 	public void run() {
-		// Convert the times to MS (using seconds makes the user input nicer)
-		long totalTime = this.input.getIntegerInput("Time") * 1000;
-		long msPerAction = (long) ((
-			1 / (double) this.input.getIntegerInput("ActionsPerSecond")
-		) * 1000);
-
-		long start = System.currentTimeMillis();
-		while (System.currentTimeMillis() - start < totalTime) {
-			long actionStart = System.currentTimeMillis();
-
-			/* Perform whatever this unit needs to do, and submit the statistics
-			   to the Skeleton.Statistics singleton container. You can modify this to submit
-			   statistics while performing the action. You likely want do it in
-			   your subclass. */
-			Statistic stat = this.getStats().getStatistic("ActiveUnits");
-			stat.addValue(1);
-			//Surrounding performAction in try/catch for semaphore utilization.
-            try {
-                this.performAction();
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
-            }
-            this.submitStatistics();
-			stat.removeValue();
-
-			/*
-				Wait until the next action should be performed. The subtraction
-				handles drift caused by amount of time the methods you implement
-				take. However, this isn't perfect and you'll still find a bit.
-
-				You might find your methods taking too long, then you'll actions
-				will be constantly firing with no wait. The drift subtracted below
-				could be a good candidate for a statistic as it acts as a proxy
-				measrement for the amount of time your Skeleton.Unit takes to peform it's
-				actions.
-			*/
-			try {
-				TimeUnit.MILLISECONDS.sleep(
-					Math.max(
-						0,
-						msPerAction - (System.currentTimeMillis() - actionStart)
-					)
-				);
-			} catch (InterruptedException e) {
-				e.printStackTrace(System.out);
+		Statistic pacingTime = this.getStats().getStatistic("PacingTime");
+
+		ActionSchedule schedule = new ActionSchedule(this.input, this.pacing.nanoTime());
+		try {
+			while (true) {
+				long now = this.pacing.nanoTime();
+				this.skipMissedSlots(schedule, now);
+				if (!schedule.hasNext(now)) {
+					break;
+				}
+				long pacedBefore = this.pacing.getPacedNanos();
+				/*
+					Wait until the next action should be performed. Every action
+					has its own due time on the schedule, so the time your methods
+					take does not push the later actions back. When your methods
+					take longer than the time between actions the wait is 0, and
+					MissedSlots decides whether the late actions are caught up.
+				*/
+				this.pacing.sleepUntil(schedule.getDue());
+				this.performTimedAction(schedule.getDue());
+				schedule.advance();
+				pacingTime.addValue((this.pacing.getPacedNanos() - pacedBefore) / 1e6f);
 			}
+			// A unit out of actions, or idle at 0 actions/second, still waits for the end of the run
+			this.pacing.sleepUntil(schedule.getEnd());
+		} catch (InterruptedException e) {
+			e.printStackTrace(System.out);
+		}
+	}
+
+	/**
+	 * Drop the slots the schedule skips and count them in SkippedSlots.
+	 *
+	 * @param schedule The schedule of this unit.
+	 * @param now The simulation time in nanoseconds.
+	 */
+	void skipMissedSlots(ActionSchedule schedule, long now) {
+		long skipped = schedule.skipMissed(now);
+		if (skipped > 0) {
+			this.skippedSlots.add(skipped);
+		}
+	}
+
+	/**
+	 * Perform a single action and record how long it worked, how long it
+	 * waited on semaphores, how late it started and how long after its due
+	 * time it finished. Lateness is measured from the due time, not from
+	 * when the action happened to start, so one slow action is seen in every
+	 * action it held back. An action that throws is still timed and still
+	 * leaves ActiveUnits before the exception propagates.
+	 *
+	 * Lag and response time are in real nanoseconds from the real time the
+	 * unit's clock reached the due time (see Skeleton.Pacing.realNanosOf),
+	 * so with Pacing None they still show slow work and late starts even
+	 * though the clock only moves in sleeps.
+	 *
+	 * @param due The simulation time in nanoseconds this action was due.
+	 */
+	void performTimedAction(long due) {
+		long workStart = System.nanoTime();
+		long pacedBefore = this.pacing.getPacedNanos();
+		// In real time from when the slot became due, under None too, where the clock itself stands still during work
+		long eligible = this.pacing.realNanosOf(due);
+		this.deadlineLag.record(System.nanoTime() - eligible);
+		this.actionLockWait = 0;
+
+		/* Perform whatever this unit needs to do, and submit the statistics
+		   to the Skeleton.Statistics singleton container. You can modify this to submit
+		   statistics while performing the action. You likely want do it in
+		   your subclass. */
+		this.beginAction();
+		//Surrounding performAction in try/catch for semaphore utilization.
+		try {
+			this.performAction();
+			this.submitStatistics();
+			this.actionsPerformed++;
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} finally {
+			// A failed action still leaves ActiveUnits and is still timed
+			this.endAction();
+			// Sleeps inside the action (the pause between battle rounds) are pacing, not work
+			long pacedInAction = this.pacing.getPacedNanos() - pacedBefore;
+			long workNanos = System.nanoTime() - workStart - pacedInAction;
+			this.workTime.addValue(workNanos / 1e6f);
+			this.serviceTime.record(workNanos);
+			this.lockWait.record(this.actionLockWait);
+			this.responseTime.record(System.nanoTime() - eligible);
 		}
 	}
 }
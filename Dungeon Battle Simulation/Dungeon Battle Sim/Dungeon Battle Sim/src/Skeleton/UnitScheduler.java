@@ -0,0 +1,166 @@
+package Skeleton;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs many units on one small pool of timer threads instead of a thread
+ * per unit.
+ *
+ * Each unit is a task on a shared ScheduledThreadPoolExecutor. When the
+ * next slot of the unit's Skeleton.ActionSchedule is due, the task hands
+ * the action to a virtual thread, and once the action is done it schedules
+ * itself again for the following slot, so `Time`, `ActionsPerSecond` and
+ * `MissedSlots` mean what they mean for a unit on its own thread.
+ *
+ * The executor keeps every pending action in one heap ordered by due
+ * time, so adding or firing a timer costs O(log n) in the number of units
+ * and a waiting unit costs no thread at all.
+ *
+ * The timer threads only ever wait for the heap, never for an action.
+ * Actions that block (a semaphore held by a battle, the pause between
+ * battle rounds) park their virtual thread instead, so a long battle
+ * delays only its own fighters however few timer threads there are.
+ * The timer thread count comes from the "SchedulerThreads" input and
+ * defaults to the number of processors, it does not grow with the number
+ * of units.
+ */
+public class UnitScheduler {
+	private final ScheduledThreadPoolExecutor executor; // The timers of every unit
+	private final ExecutorService actions; // Runs each action on a virtual thread of its own
+	private final CountDownLatch remaining; // Units that have not finished their run yet
+	private final AtomicReference<Throwable> failure = new AtomicReference<>(); // The first action that threw
+
+	/**
+	 * @param input The simulation input with the SchedulerThreads value.
+	 * @param units The number of units that will be scheduled.
+	 * @throws RuntimeException When SchedulerThreads is not positive. This
+	 * 		   should fail the entire simulation.
+	 */
+	private UnitScheduler(SimulationInput input, int units) {
+		int threads = input.getConfig().getInt("SchedulerThreads", Runtime.getRuntime().availableProcessors());
+		if (threads < 1) {
+			throw new RuntimeException(String.format("SchedulerThreads must be positive, got %d", threads));
+		}
+		this.executor = new ScheduledThreadPoolExecutor(threads, Thread.ofPlatform().name("unit-scheduler-", 0).factory());
+		this.actions = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("scheduled-action-", 0).factory());
+		this.remaining = new CountDownLatch(units);
+	}
+
+	/**
+	 * Run every unit for `Time` seconds on the shared pool and return once
+	 * all of them are done.
+	 *
+	 * @param input The simulation input.
+	 * @param units The units to run.
+	 * @throws RuntimeException When an action threw, with that exception as
+	 * 		   the cause. The other units are stopped.
+	 */
+	public static void runAll(SimulationInput input, List<? extends Unit> units) throws InterruptedException {
+		UnitScheduler scheduler = new UnitScheduler(input, units.size());
+		try {
+			for (Unit unit : units) {
+				scheduler.executor.execute(scheduler.new ScheduledUnit(unit));
+			}
+			scheduler.remaining.await();
+		} finally {
+			scheduler.executor.shutdownNow();
+			scheduler.actions.shutdownNow();
+		}
+		Throwable failure = scheduler.failure.get();
+		if (failure != null) {
+			throw new RuntimeException(String.format("A scheduled unit failed: %s", failure), failure);
+		}
+	}
+
+	/**
+	 * Stop every unit after an action threw, releasing runAll at once
+	 * instead of waiting for every other unit's next action.
+	 *
+	 * @param e What the action threw.
+	 */
+	private void fail(Throwable e) {
+		this.failure.compareAndSet(null, e);
+		while (this.remaining.getCount() > 0) {
+			this.remaining.countDown();
+		}
+	}
+
+	/**
+	 * The timer task of one unit, run once per action.
+	 */
+	private class ScheduledUnit implements Runnable {
+		private final Unit unit;
+		private final Pacing pacing;
+		private final Statistic pacingTime;
+		private ActionSchedule schedule; // The unit's slots, null until the task first runs
+		private long waited; // Real nanoseconds the executor waited before this run
+
+		/**
+		 * @param unit The unit the task runs.
+		 */
+		ScheduledUnit(Unit unit) {
+			this.unit = unit;
+			this.pacing = unit.getPacing();
+			this.pacingTime = unit.getStats().getStatistic("PacingTime");
+		}
+
+		/**
+		 * Hand the action that is due to a virtual thread, wait for it when
+		 * it is not due yet, or finish the unit once its time is up.
+		 */
+		public void run() {
+			try {
+				long now = this.pacing.nanoTime();
+				if (this.schedule == null) {
+					this.schedule = new ActionSchedule(this.unit.getSimInput(), now);
+				}
+				if (failure.get() != null) {
+					remaining.countDown();
+					return;
+				}
+				this.unit.skipMissedSlots(this.schedule, now);
+				// A unit out of actions still waits for the end of the run, like one on its own thread
+				boolean hasNext = this.schedule.hasNext(now);
+				long due = hasNext ? this.schedule.getDue() : this.schedule.getEnd();
+				long delay = this.pacing.schedule(due - now);
+				if (delay > 0) {
+					this.waited += delay;
+					executor.schedule(this, delay, TimeUnit.NANOSECONDS);
+					return;
+				}
+				if (!hasNext) {
+					remaining.countDown();
+					return;
+				}
+				actions.execute(this::act);
+			} catch (Throwable e) {
+				fail(e);
+			}
+		}
+
+		/**
+		 * Perform the action that is due on its virtual thread, then queue
+		 * the timer task again. The unit has no timer pending meanwhile, so
+		 * its actions never overlap.
+		 */
+		private void act() {
+			try {
+				long pacedBefore = this.pacing.getPacedNanos();
+				this.unit.performTimedAction(this.schedule.getDue());
+				this.schedule.advance();
+				this.pacingTime.addValue((this.pacing.getPacedNanos() - pacedBefore + this.waited) / 1e6f);
+				this.waited = 0;
+				// Queued behind the other units' due actions, so a unit catching up does not starve them
+				executor.execute(this);
+			} catch (Throwable e) {
+				fail(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * Name: Jonathan Boyle
+ * Date: October 18th 2026
+ * Description: Standalone benchmark for the statistic types, run it with its own main method.
+ * Threads add 1 to one shared statistic as fast as they can, first a WorkerStatistic (a locked list of boxed
+ * samples) then a CounterStatistic (striped LongAdder cells), and the adds per second, the time summarize takes and
+ * the heap the statistic holds afterwards are printed for each thread count.
+ * Arguments: [adds per thread, default 2000000].
+ */
+
+import Skeleton.CounterStatistic;
+import Skeleton.Statistic;
+import Skeleton.WorkerStatistic;
+
+public class StatisticBenchmark {
+    private static final int[] THREADS = {1, 2, 4, 8}; //Thread counts each statistic is run at.
+
+    public static void main(String[] args) throws InterruptedException {
+        int adds = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        System.out.println("Shared statistic, " + adds + " adds per thread, "
+                + Runtime.getRuntime().availableProcessors() + " cores");
+        System.out.printf("%-8s %8s %14s %14s %14s%n", "type", "threads", "adds/s", "summarize ms", "heap MB");
+        for (int threads : THREADS) {
+            run("Worker", new WorkerStatistic("Benchmark"), threads, adds);
+            run("Counter", new CounterStatistic("Benchmark"), threads, adds);
+        }
+    }
+
+    /**
+     * Adds to one statistic from several threads, then summarizes it.
+     *
+     * @param type      The name of the statistic type, for the output.
+     * @param statistic The statistic.
+     * @param threads   The number of threads adding.
+     * @param adds      The adds per thread.
+     * @throws InterruptedException
+     */
+    private static void run(String type, Statistic statistic, int threads, int adds) throws InterruptedException {
+        long heapBefore = usedHeap();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < adds; i++) {
+                    statistic.addValue(1);
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        float sum = statistic.summarize();
+        double summarizeMs = (System.nanoTime() - start) / 1e6;
+        long heap = usedHeap() - heapBefore;
+        if (sum != (float) threads * adds) {
+            System.out.println("Lost adds: " + sum);
+        }
+        System.out.printf("%-8s %8d %14.0f %14.3f %14.1f%n", type, threads, (double) threads * adds / seconds,
+                summarizeMs, Math.max(0, heap) / 1e6);
+    }
+
+    /**
+     * The heap in use after a garbage collection, so only what is still reachable is counted.
+     */
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Name: Jonathan Boyle
+ * Date: October 18th 2026
+ * Description: Headless engine that runs the simulation in logical ticks instead of wall-clock time.
+ * Every tick is a move phase, then collision detection, then battle resolution, with no sleeping in between,
+ * so a run finishes as fast as the CPU allows while submitting the same statistics as the threaded units.
+ * With TickPhases set to Parallel the phases run on the grid's fork-join phase executor.
+ */
+
+import Skeleton.SimulationInput;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class TickEngine {
+    private final BattleGrid grid; //The grid the adventurers are placed on.
+    private final long totalTicks; //The number of ticks to run, one tick per action slot of Time and ActionsPerSecond.
+    private final ForkJoinPool pool; //The pool running the phases in parallel, null when they run sequentially.
+    private long tick; //The current tick.
+
+    /**
+     * Constructor for the engine, a run lasts Time * ActionsPerSecond ticks so every adventurer gets as many
+     * actions as it would in the threaded run.
+     * TickPhases picks Sequential (default) or Parallel phases, Parallelism sets the threads of a parallel run
+     * (default the number of cores).
+     *
+     * @param input The simulation input object with the Time and ActionsPerSecond values.
+     * @param grid  The grid holding the adventurers.
+     */
+    public TickEngine(SimulationInput input, BattleGrid grid) {
+        this.grid = grid;
+        //A fractional rate rounds up, like the threaded run that performs every slot due before the end.
+        this.totalTicks = (long) Math.ceil(input.getIntegerInput("Time") * input.getDoubleInput("ActionsPerSecond"));
+        if (input.getStringInput("TickPhases", "Sequential").equals("Parallel")) {
+            this.pool = new ForkJoinPool(input.getIntegerInput("Parallelism", Runtime.getRuntime().availableProcessors()));
+        } else {
+            this.pool = null;
+        }
+    }
+
+    /**
+     * Runs every tick, battles are resolved without the pause between rounds.
+     *
+     * @throws InterruptedException
+     */
+    public void run() throws InterruptedException {
+        grid.setRoundDelay(0);
+        try {
+            for (tick = 0; tick < totalTicks; tick++) {
+                grid.getLog().log(BattleLog.Event.TICK, null, (int) tick);
+                if (pool != null) {
+                    grid.parallelMovePhase(pool);
+                    grid.parallelBattlePhase(pool, grid.parallelCollisionPhase(pool));
+                } else {
+                    movePhase();
+                    resolveBattles(detectCollisions());
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Move phase, every adventurer performs one action like Unit.run would: alive adventurers take a step and
+     * dead ones leave the grid. Battles are left to the later phases.
+     */
+    private void movePhase() {
+        for (Adventurer adventurer : grid.getAdventurers()) {
+            adventurer.beginAction();
+            if (adventurer.isAlive()) {
+                grid.simulateStep(adventurer);
+            } else {
+                adventurer.leaveGrid(); //Dead adventurers are moved off the grid.
+            }
+            adventurer.submitStatistics();
+            adventurer.endAction();
+        }
+    }
+
+    /**
+     * Collision detection, pairs every alive adventurer with its lowest-slot enemy by the rule the parallel phases
+     * use, so Sequential and Parallel TickPhases pick the same opponents. An adventurer fights at most one battle
+     * per tick.
+     */
+    private List<Adventurer[]> detectCollisions() {
+        return grid.collisionPhase();
+    }
+
+    /**
+     * Battle resolution, fights every pair found by collision detection in the order they were found.
+     *
+     * @param battles The pairs of adventurers to fight.
+     * @throws InterruptedException
+     */
+    private void resolveBattles(List<Adventurer[]> battles) throws InterruptedException {
+        for (Adventurer[] battle : battles) {
+            grid.simulateBattle(battle[0], battle[1]);
+        }
+    }
+
+    /**
+     * Getter for the current tick.
+     */
+    public long getTick() {
+        return tick;
+    }
+}
@@ -3,76 +3,157 @@
  * Date: April 25th 2024
  * Description: The file containing the WeaponStrategy interface, with inner classes each weapon and the switcher class.
  * This file implements the Strategy Design pattern, as each weapon represents a new strategy for the adventurer.
+ * The weapons are immutable flyweights held by the WeaponRegistry and shared by every adventurer, an adventurer only
+ * stores the id of the weapon it has equipped, and the battle reads the damage, range and crit of that id from the
+ * registry's arrays.
  */
 
 /**
  * The weapon strategy interface that defines the method to use the current weapon.
  */
 interface WeaponStrategy {
-    void useWeapon();
+    void useWeapon(BattleLog log, Adventurer adventurer);
 }
 
 /**
- * Sword strategy class that prints the action for using the sword.
+ * Weapon class, one immutable instance per kind of weapon, shared by every adventurer that equips it.
  */
-class SwordStrategy implements WeaponStrategy {
+class Weapon implements WeaponStrategy {
+    final int id; //The id of the weapon in the registry.
+    final String name; //The name of the weapon.
+    final int damage; //The damage added to the attack value before the luck boost.
+    final int range; //The reach of the weapon, the fighter with the longer reach strikes first.
+    final int critChance; //The chance in percent that a hit deals double damage.
+    private final String action; //The text logged when the weapon is used, built once.
+
     /**
-     * Method that prints the weapon used.
+     * Constructor for a weapon.
+     *
+     * @param id         The id of the weapon in the registry.
+     * @param name       The name of the weapon.
+     * @param damage     The damage added to the attack value.
+     * @param range      The reach of the weapon.
+     * @param critChance The chance in percent that a hit deals double damage.
+     * @param action     The text logged when the weapon is used.
      */
-    public void useWeapon() {
-        System.out.println("attacking with Sword");
+    Weapon(int id, String name, int damage, int range, int critChance, String action) {
+        this.id = id;
+        this.name = name;
+        this.damage = damage;
+        this.range = range;
+        this.critChance = critChance;
+        this.action = action;
     }
-}
 
-/**
- * Bow strategy class that prints the action for using the bow.
- */
-class BowStrategy implements WeaponStrategy {
     /**
-     * Method that prints the weapon used.
+     * Method that logs the weapon used.
+     *
+     * @param log        The battle log.
+     * @param adventurer The adventurer using the weapon.
      */
-    public void useWeapon() {
-        System.out.println("attacking with Bow");
+    public void useWeapon(BattleLog log, Adventurer adventurer) {
+        log.log(BattleLog.Event.WEAPON, adventurer, action);
     }
 }
 
 /**
- * Spear strategy class that prints the action for using the spear.
+ * The registry of every weapon. Weapon ids index parallel arrays of the weapon stats, so the attack loop reads them
+ * without touching the Weapon objects.
  */
-class SpearStrategy implements WeaponStrategy {
+class WeaponRegistry {
+    //Every weapon, by id. Fists are id 0, the weapon of an adventurer that has not equipped one.
+    private static final Weapon[] WEAPONS = {
+            new Weapon(0, "Fists", 0, 1, 5, "attacking with their fists!"),
+            new Weapon(1, "Sword", 5, 1, 10, "attacking with Sword"),
+            new Weapon(2, "Bow", 3, 3, 15, "attacking with Bow"),
+            new Weapon(3, "Spear", 4, 2, 5, "attacking with Spear")
+    };
+    public static final int FISTS = 0; //The id of the fists.
+    private static final int[] DAMAGE = new int[WEAPONS.length]; //The damage of every weapon, by id.
+    private static final int[] RANGE = new int[WEAPONS.length]; //The range of every weapon, by id.
+    private static final int[] CRIT_CHANCE = new int[WEAPONS.length]; //The crit chance of every weapon, by id.
+
+    static {
+        for (Weapon weapon : WEAPONS) {
+            DAMAGE[weapon.id] = weapon.damage;
+            RANGE[weapon.id] = weapon.range;
+            CRIT_CHANCE[weapon.id] = weapon.critChance;
+        }
+    }
+
     /**
-     * Method that prints the weapon used.
+     * Getter for the number of weapons.
      */
-    public void useWeapon() {
-        System.out.println("attacking with Spear");
+    static int size() {
+        return WEAPONS.length;
     }
-}
-
-/**
- * The class that allows for weapon switching.
- */
-class WeaponSwitcher {
-    private WeaponStrategy weaponStrategy; //Weapon strategy object to allow for the strategy.
 
     /**
-     * Method to set the weapon strategy dynamically.
+     * Getter for a weapon.
      *
-     * @param weaponStrategy The new weapon strategy being implemented.
+     * @param id The weapon id.
      */
-    public void setWeaponStrategy(WeaponStrategy weaponStrategy) {
-        this.weaponStrategy = weaponStrategy;
+    static Weapon get(int id) {
+        return WEAPONS[id];
     }
 
     /**
-     * Method to use the weapon based on the current strategy.
+     * Getter for a weapon by its name.
+     *
+     * @param name The weapon name.
+     * @throws RuntimeException When no weapon has the name, this should fail the entire simulation.
      */
-    public void useWeapon() {
-        if (weaponStrategy != null) {
-            weaponStrategy.useWeapon();
-        } else {
-            //If no strategy is used, the adventurer attacks with their fists.
-            System.out.println("attacking with their fists!");
+    static Weapon forName(String name) {
+        for (Weapon weapon : WEAPONS) {
+            if (weapon.name.equals(name)) {
+                return weapon;
+            }
         }
+        throw new RuntimeException(String.format("Unknown weapon: %s", name));
+    }
+
+    /**
+     * Getter for the damage of a weapon.
+     *
+     * @param id The weapon id.
+     */
+    static int getDamage(int id) {
+        return DAMAGE[id];
+    }
+
+    /**
+     * Getter for the range of a weapon.
+     *
+     * @param id The weapon id.
+     */
+    static int getRange(int id) {
+        return RANGE[id];
+    }
+
+    /**
+     * Getter for the crit chance of a weapon, in percent.
+     *
+     * @param id The weapon id.
+     */
+    static int getCritChance(int id) {
+        return CRIT_CHANCE[id];
     }
 }
 
+/**
+ * The class that allows for weapon switching.
+ */
+class WeaponSwitcher {
+    /**
+     * Method to equip a weapon on an adventurer, it stays equipped until the adventurer switches again,
+     * and to use it based on the new strategy.
+     *
+     * @param log        The battle log.
+     * @param adventurer The adventurer switching weapon.
+     * @param weapon     The weapon being equipped.
+     */
+    static void switchWeapon(BattleLog log, Adventurer adventurer, Weapon weapon) {
+        adventurer.setWeapon(weapon);
+        weapon.useWeapon(log, adventurer);
+    }
+}